@@ -0,0 +1,81 @@
+package com.speedier.fracturegens.benchmarks;
+
+import com.speedier.fracturegens.models.Generator;
+import com.speedier.fracturegens.models.LootTable;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-drop work on a single generator: picking an output item, building the
+ * stacks for one drop and working out where they land.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratorBenchmark {
+    private static final Material[] OUTPUTS = {
+            Material.COBBLESTONE, Material.STONE, Material.COAL, Material.IRON_INGOT, Material.GOLD_INGOT,
+            Material.REDSTONE, Material.LAPIS_LAZULI, Material.DIAMOND, Material.EMERALD, Material.NETHERITE_SCRAP
+    };
+
+    // Distinct items in the loot table
+    @Param({"1", "4", "10"})
+    public int items;
+
+    @Param({"TOP", "SIDES", "RANDOM"})
+    public Generator.SpawnDirection direction;
+
+    private Generator generator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<ItemStack> stacks = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            stacks.add(new ItemStack(OUTPUTS[i], 1));
+            // Skewed like a typical ore table: common items dominate
+            weights.add(LootTable.MAX_WEIGHT >> i);
+        }
+
+        generator = new Generator(new Location(StandIns.install(), 8, 64, 8), new UUID(0xF6A7L, 0));
+        generator.setLoot(new LootTable(stacks, weights));
+        generator.setDirection(direction);
+    }
+
+    @Benchmark
+    public ItemStack getRandomItem() {
+        return generator.getRandomItem();
+    }
+
+    @Benchmark
+    public Location getSpawnLocation() {
+        return generator.getSpawnLocation();
+    }
+
+    // One drop after the default five-second interval at the maximum rate
+    @Benchmark
+    public List<ItemStack> createOutput() {
+        return generator.createOutput(25, 64);
+    }
+}
@@ -0,0 +1,105 @@
+package com.speedier.fracturegens.benchmarks;
+
+import com.speedier.fracturegens.managers.GeneratorManager;
+import com.speedier.fracturegens.models.Generator;
+import com.speedier.fracturegens.scheduler.BukkitTaskScheduler;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * A real {@link GeneratorManager} on the stand-in server, filled with a fixed
+ * layout: generators sit four to a chunk on a square of chunks, and each owner
+ * has {@value #PER_OWNER} of them (the default per-player limit). Limits that
+ * would stop the manager from reaching the requested size are lifted.
+ */
+public class GeneratorFixture {
+    public static final int PER_CHUNK = 4;
+    public static final int PER_OWNER = 50;
+    private static final long LOAD_TIMEOUT_MILLIS = 30_000;
+
+    private final Path dataFolder;
+    private final World world;
+    private final GeneratorManager manager;
+    private final Location[] locations;
+    private final UUID[] owners;
+    private final int chunksPerSide;
+
+    public GeneratorFixture(int count, Map<String, Object> settings) throws IOException {
+        this.dataFolder = Files.createTempDirectory("fracturegens-bench");
+        this.world = StandIns.install();
+
+        Map<String, Object> config = new HashMap<>();
+        config.put("performance.max-generators-per-chunk", PER_CHUNK);
+        config.put("performance.max-generators-per-player", PER_OWNER);
+        config.put("performance.max-items-per-tick", Integer.MAX_VALUE);
+        config.put("performance.per-owner-items-per-tick", 0);
+        config.put("performance.time-budget.enabled", false);
+        config.put("storage.format", "BINARY");
+        config.put("storage.enable-backups", false);
+        config.put("metrics.jmx", false);
+        config.putAll(settings);
+        Plugin plugin = StandIns.plugin(dataFolder.toFile(), config);
+
+        this.manager = new GeneratorManager(plugin, new BukkitTaskScheduler(plugin));
+        awaitLoad(manager);
+
+        int chunks = (count + PER_CHUNK - 1) / PER_CHUNK;
+        this.chunksPerSide = (int) Math.ceil(Math.sqrt(chunks));
+        this.locations = new Location[count];
+        this.owners = new UUID[(count + PER_OWNER - 1) / PER_OWNER];
+        for (int i = 0; i < owners.length; i++) {
+            owners[i] = new UUID(0xF6A7L, i);
+        }
+
+        for (int i = 0; i < count; i++) {
+            int chunk = i / PER_CHUNK;
+            int chunkX = chunk % chunksPerSide;
+            int chunkZ = chunk / chunksPerSide;
+            locations[i] = new Location(world, (chunkX << 4) + (i % PER_CHUNK) * 4, 64, chunkZ << 4);
+            if (!manager.createGenerator(locations[i], owners[i / PER_OWNER])) {
+                throw new IllegalStateException("Generator " + i + " was rejected");
+            }
+        }
+    }
+
+    // The load finishes with a task handed to the main thread, which is this one
+    static void awaitLoad(GeneratorManager manager) {
+        long deadline = System.currentTimeMillis() + LOAD_TIMEOUT_MILLIS;
+        while (!manager.isLoaded()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Generators did not load within " + LOAD_TIMEOUT_MILLIS + "ms");
+            }
+            StandIns.runMainThreadTasks();
+            Thread.onSpinWait();
+        }
+    }
+
+    public void close() throws IOException {
+        manager.shutdown();
+        StandIns.clearEntities();
+        try (Stream<Path> files = Files.walk(dataFolder)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    public GeneratorManager getManager() { return manager; }
+    public World getWorld() { return world; }
+    public int size() { return locations.length; }
+    public Location getLocation(int index) { return locations[index]; }
+    public UUID getOwner(int index) { return owners[index]; }
+    public int getOwnerCount() { return owners.length; }
+    public int getChunkX(int index) { return (index / PER_CHUNK) % chunksPerSide; }
+    public int getChunkZ(int index) { return (index / PER_CHUNK) / chunksPerSide; }
+    public Generator getGenerator(int index) { return manager.getGeneratorAt(locations[index]); }
+}
@@ -0,0 +1,146 @@
+package com.speedier.fracturegens.benchmarks;
+
+import com.speedier.fracturegens.managers.GeneratorManager;
+import com.speedier.fracturegens.models.Generator;
+import org.bukkit.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The index lookups behind block interaction, chunk events and the per-player
+ * limit check. Probes are random but fixed per run, so every size sees the
+ * same access pattern and large indexes pay their cache misses. The
+ * {@code StringKey} benchmarks are the block index as it was before packed
+ * keys, a "world:x:y:z" string per lookup into a map of UUID sets, kept as the
+ * baseline for {@code getGeneratorAt}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class LookupBenchmark {
+    private static final int PROBES = 4096;
+
+    @Param({"1000", "10000", "100000"})
+    public int generators;
+
+    private GeneratorFixture fixture;
+    private GeneratorManager manager;
+    private Location[] blockProbes;
+    private Location[] missProbes;
+    private int[] chunkXProbes;
+    private int[] chunkZProbes;
+    private UUID[] ownerProbes;
+    private Map<String, Set<UUID>> stringIndex;
+    private Map<UUID, Generator> generatorsById;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = new GeneratorFixture(generators, Map.of());
+        manager = fixture.getManager();
+
+        SplittableRandom random = new SplittableRandom(42);
+        blockProbes = new Location[PROBES];
+        missProbes = new Location[PROBES];
+        chunkXProbes = new int[PROBES];
+        chunkZProbes = new int[PROBES];
+        ownerProbes = new UUID[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            int index = random.nextInt(generators);
+            blockProbes[i] = fixture.getLocation(index);
+            missProbes[i] = fixture.getLocation(index).clone().add(0, 1, 0);
+            chunkXProbes[i] = fixture.getChunkX(index);
+            chunkZProbes[i] = fixture.getChunkZ(index);
+            ownerProbes[i] = fixture.getOwner(random.nextInt(fixture.getOwnerCount()));
+        }
+
+        stringIndex = new ConcurrentHashMap<>();
+        generatorsById = new ConcurrentHashMap<>();
+        for (int i = 0; i < generators; i++) {
+            Generator generator = fixture.getGenerator(i);
+            stringIndex.computeIfAbsent(stringKey(generator.getLocation()), k -> ConcurrentHashMap.newKeySet())
+                    .add(generator.getId());
+            generatorsById.put(generator.getId(), generator);
+        }
+    }
+
+    private static String stringKey(Location location) {
+        return location.getWorld().getName() + ":" +
+               location.getBlockX() + ":" +
+               location.getBlockY() + ":" +
+               location.getBlockZ();
+    }
+
+    private Generator getGeneratorAtStringKey(Location location) {
+        Set<UUID> locationGens = stringIndex.get(stringKey(location));
+        if (locationGens == null || locationGens.isEmpty()) {
+            return null;
+        }
+        return generatorsById.get(locationGens.iterator().next());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        fixture.close();
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (PROBES - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public Generator getGeneratorAt() {
+        return manager.getGeneratorAt(blockProbes[next()]);
+    }
+
+    // Most block events hit blocks that are not generators
+    @Benchmark
+    public Generator getGeneratorAtMiss() {
+        return manager.getGeneratorAt(missProbes[next()]);
+    }
+
+    @Benchmark
+    public Generator getGeneratorAtStringKey() {
+        return getGeneratorAtStringKey(blockProbes[next()]);
+    }
+
+    @Benchmark
+    public Generator getGeneratorAtStringKeyMiss() {
+        return getGeneratorAtStringKey(missProbes[next()]);
+    }
+
+    @Benchmark
+    public List<Generator> getGeneratorsInChunk() {
+        int probe = next();
+        return manager.getGeneratorsInChunk(StandIns.WORLD_NAME, chunkXProbes[probe], chunkZProbes[probe]);
+    }
+
+    @Benchmark
+    public List<Generator> getGeneratorsByOwner() {
+        return manager.getGeneratorsByOwner(ownerProbes[next()]);
+    }
+}
@@ -0,0 +1,89 @@
+package com.speedier.fracturegens.benchmarks;
+
+import com.speedier.fracturegens.models.Generator;
+import com.speedier.fracturegens.models.LootTable;
+import com.speedier.fracturegens.storage.BinarySnapshotCodec;
+import com.speedier.fracturegens.storage.GeneratorRecord;
+import com.speedier.fracturegens.storage.SnapshotCodec;
+import com.speedier.fracturegens.storage.YamlSnapshotCodec;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * The serialization half of saveGenerators and loadGenerators: encoding a full
+ * snapshot and decoding it back, for both snapshot formats. File I/O is left
+ * out so the numbers compare the formats rather than the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SnapshotCodecBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int generators;
+
+    @Param({"YAML", "BINARY"})
+    public String format;
+
+    private SnapshotCodec codec;
+    private List<GeneratorRecord> records;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        StandIns.install();
+        Logger logger = Logger.getLogger("FractureGens");
+        codec = "BINARY".equals(format) ? new BinarySnapshotCodec(logger) : new YamlSnapshotCodec(logger);
+
+        // A few distinct loot tables shared by many generators, as on a real server
+        List<LootTable> tables = List.of(
+                LootTable.DEFAULT,
+                new LootTable(List.of(new ItemStack(Material.COAL, 1), new ItemStack(Material.IRON_INGOT, 1)),
+                        List.of(3, 1)),
+                new LootTable(List.of(new ItemStack(Material.STONE, 1), new ItemStack(Material.DIAMOND, 1),
+                        new ItemStack(Material.EMERALD, 1)), List.of(90, 8, 2)));
+        Generator.SpawnDirection[] directions = Generator.SpawnDirection.values();
+        long now = System.currentTimeMillis();
+
+        records = new ArrayList<>(generators);
+        for (int i = 0; i < generators; i++) {
+            records.add(new GeneratorRecord(new UUID(0x6E6L, i), StandIns.WORLD_NAME,
+                    (i % 1000) * 3, 64, (i / 1000) * 3, new UUID(0xF6A7L, i / GeneratorFixture.PER_OWNER),
+                    tables.get(i % tables.size()), 60, directions[i % directions.length], i % 10 != 0,
+                    now, (i % 7) / 7.0));
+        }
+        encoded = codec.encode(records);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return codec.encode(records);
+    }
+
+    @Benchmark
+    public Map<UUID, GeneratorRecord> decode() throws Exception {
+        return codec.decode(ByteBuffer.wrap(encoded));
+    }
+}
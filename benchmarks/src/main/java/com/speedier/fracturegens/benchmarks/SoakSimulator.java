@@ -0,0 +1,443 @@
+package com.speedier.fracturegens.benchmarks;
+
+import com.speedier.fracturegens.managers.GeneratorManager;
+import com.speedier.fracturegens.metrics.GeneratorMetrics;
+import com.speedier.fracturegens.metrics.Histogram;
+import com.speedier.fracturegens.models.Generator;
+import com.speedier.fracturegens.models.LootTable;
+import com.speedier.fracturegens.scheduler.BukkitTaskScheduler;
+import com.speedier.fracturegens.scheduler.TaskScheduler;
+import com.speedier.fracturegens.utils.PerformanceUtils;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Headless soak test: runs the real generator manager on the stand-in server
+ * for thousands of ticks while chunks load and unload, players edit
+ * generators in the GUI and break and re-place them. Ticks are paced to 50 ms
+ * like a server's, so generators produce at their real rates. Reports tick
+ * time, spawn cycles, item entities, save and load durations and heap growth,
+ * which is enough to size max-items-per-tick and generator-tick-interval
+ * before a config goes to production.
+ *
+ * <pre>
+ * java -cp benchmarks.jar com.speedier.fracturegens.benchmarks.SoakSimulator \
+ *     --generators 100000 --worlds 3 --ticks 12000 \
+ *     --set performance.max-items-per-tick=200 --set performance.generator-tick-interval=10
+ * </pre>
+ */
+public class SoakSimulator {
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long MAX_CATCH_UP_NANOS = TimeUnit.SECONDS.toNanos(2);
+    private static final Material[] LOOT = {
+            Material.COBBLESTONE, Material.STONE, Material.COAL, Material.IRON_INGOT, Material.GOLD_INGOT,
+            Material.REDSTONE, Material.DIAMOND, Material.EMERALD
+    };
+
+    private int generatorCount = 10_000;
+    private int chunkCount = -1;
+    private int worldCount = 1;
+    private int ticks = 6000;
+    private double chunkChurn = 1.0;
+    private int unloadTicks = 600;
+    private double edits = 0.5;
+    private double breaks = 0.1;
+    private int despawnTicks = 6000;
+    private int reportEvery = 1200;
+    private long seed = 1;
+    private boolean paced = true;
+    private Path dataFolder;
+    private final Map<String, Object> settings = new LinkedHashMap<>();
+
+    private SplittableRandom random;
+    private GeneratorManager manager;
+    private Location[] locations;
+    private UUID[] owners;
+    private World[] chunkWorlds;
+    private int[] chunkXs;
+    private int[] chunkZs;
+    private boolean[] unloaded;
+    private final ArrayDeque<long[]> reloads = new ArrayDeque<>();
+    private final Histogram tickNanos = new Histogram();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private long peakHeap;
+    private long chunkUnloads;
+    private long guiEdits;
+    private long blockBreaks;
+    private long slowTicks;
+    private int groundItems;
+
+    public static void main(String[] args) throws Exception {
+        SoakSimulator simulator = new SoakSimulator();
+        if (!simulator.parse(args)) {
+            printUsage();
+            return;
+        }
+        simulator.run();
+    }
+
+    private boolean parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("--no-pace")) {
+                paced = false;
+                continue;
+            }
+            if (option.equals("--help") || i + 1 >= args.length) {
+                return false;
+            }
+
+            String value = args[++i];
+            switch (option) {
+                case "--generators" -> generatorCount = Integer.parseInt(value);
+                case "--chunks" -> chunkCount = Integer.parseInt(value);
+                case "--worlds" -> worldCount = Integer.parseInt(value);
+                case "--ticks" -> ticks = Integer.parseInt(value);
+                case "--chunk-churn" -> chunkChurn = Double.parseDouble(value);
+                case "--unload-ticks" -> unloadTicks = Integer.parseInt(value);
+                case "--edits" -> edits = Double.parseDouble(value);
+                case "--breaks" -> breaks = Double.parseDouble(value);
+                case "--despawn-ticks" -> despawnTicks = Integer.parseInt(value);
+                case "--report-every" -> reportEvery = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--data" -> dataFolder = Path.of(value);
+                case "--set" -> {
+                    int split = value.indexOf('=');
+                    if (split <= 0) {
+                        return false;
+                    }
+                    settings.put(value.substring(0, split), parseValue(value.substring(split + 1)));
+                }
+                default -> {
+                    return false;
+                }
+            }
+        }
+        if (chunkCount <= 0) {
+            chunkCount = Math.max(1, generatorCount / GeneratorFixture.PER_CHUNK);
+        }
+        return generatorCount > 0 && worldCount > 0 && ticks > 0;
+    }
+
+    private static Object parseValue(String value) {
+        if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+            return Boolean.parseBoolean(value);
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            // not an int
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return value;
+        }
+    }
+
+    private static void printUsage() {
+        System.out.println("""
+                Usage: SoakSimulator [options]
+                  --generators <n>      generators to place (10000)
+                  --chunks <n>          chunks they are spread over (generators / 4)
+                  --worlds <n>          worlds the chunks are spread over (1)
+                  --ticks <n>           server ticks to simulate (6000)
+                  --chunk-churn <rate>  chunk unloads per tick (1.0)
+                  --unload-ticks <n>    ticks an unloaded chunk stays unloaded (600)
+                  --edits <rate>        GUI edits per tick (0.5)
+                  --breaks <rate>       generators broken and re-placed per tick (0.1)
+                  --despawn-ticks <n>   age at which dropped items despawn, 0 = never (6000)
+                  --report-every <n>    ticks between progress lines (1200)
+                  --seed <n>            random seed (1)
+                  --data <dir>          plugin data folder (a temporary folder, deleted afterwards)
+                  --set <path>=<value>  override a config.yml setting, repeatable
+                  --no-pace             run ticks back to back instead of every 50 ms""");
+    }
+
+    private void run() throws Exception {
+        boolean temporary = dataFolder == null;
+        if (temporary) {
+            dataFolder = Files.createTempDirectory("fracturegens-soak");
+        }
+        StandIns.install();
+        StandIns.setItemDespawnTicks(despawnTicks);
+        random = new SplittableRandom(seed);
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("performance.max-generators-per-chunk", (generatorCount + chunkCount - 1) / chunkCount);
+        config.put("performance.max-generators-per-player", GeneratorFixture.PER_OWNER);
+        config.put("metrics.jmx", false);
+        config.putAll(settings);
+        Plugin plugin = StandIns.plugin(dataFolder.toFile(), config);
+
+        TaskScheduler taskScheduler = new BukkitTaskScheduler(plugin);
+        layOut();
+        manager = new GeneratorManager(plugin, taskScheduler);
+        GeneratorFixture.awaitLoad(manager);
+        long placeStart = System.nanoTime();
+        int placed = 0;
+        for (int i = 0; i < generatorCount; i++) {
+            if (manager.getGeneratorAt(locations[i]) != null
+                    || manager.createGenerator(locations[i], owners[i / GeneratorFixture.PER_OWNER])) {
+                placed++;
+            }
+        }
+        long placeNanos = System.nanoTime() - placeStart;
+
+        System.gc();
+        long baselineHeap = memory.getHeapMemoryUsage().getUsed();
+        peakHeap = baselineHeap;
+        System.out.printf(Locale.ROOT, "Placed %,d generators in %,d chunks across %d world(s) in %.1f s, heap %s%n",
+                placed, chunkCount, worldCount, placeNanos / 1e9, formatBytes(baselineHeap));
+        System.out.printf(Locale.ROOT, "max-items-per-tick=%d generator-tick-interval=%d async=%b time-budget=%b%n",
+                plugin.getConfig().getInt("performance.max-items-per-tick", 100),
+                plugin.getConfig().getInt("performance.generator-tick-interval", 20),
+                plugin.getConfig().getBoolean("performance.async-processing", true),
+                plugin.getConfig().getBoolean("performance.time-budget.enabled", true));
+
+        PerformanceUtils.startTickSampler(taskScheduler, plugin.getConfig().getLong("performance.lag-spike-millis", 100));
+        long runStart = System.nanoTime();
+        long nextTick = runStart;
+        for (int tick = 1; tick <= ticks; tick++) {
+            long start = System.nanoTime();
+            churnChunks();
+            editGenerators();
+            breakGenerators();
+            StandIns.tick();
+            long elapsed = System.nanoTime() - start;
+            tickNanos.record(elapsed);
+            if (elapsed > TICK_NANOS) {
+                slowTicks++;
+            }
+
+            if (tick % 20 == 0) {
+                peakHeap = Math.max(peakHeap, memory.getHeapMemoryUsage().getUsed());
+            }
+            if (reportEvery > 0 && tick % reportEvery == 0) {
+                printProgress(tick);
+            }
+            if (paced) {
+                // Late ticks run back to back to catch up, unless the server fell too far behind
+                nextTick += TICK_NANOS;
+                long wait = nextTick - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                } else if (-wait > MAX_CATCH_UP_NANOS) {
+                    nextTick = System.nanoTime();
+                }
+            }
+        }
+        long runNanos = System.nanoTime() - runStart;
+        PerformanceUtils.stopTickSampler();
+
+        GeneratorMetrics metrics = manager.getMetrics();
+        long shutdownStart = System.nanoTime();
+        manager.shutdown();
+        long shutdownNanos = System.nanoTime() - shutdownStart;
+
+        groundItems = StandIns.getItemEntityCount();
+        StandIns.clearEntities();
+        System.gc();
+        long endHeap = memory.getHeapMemoryUsage().getUsed();
+
+        GeneratorManager reloaded = new GeneratorManager(plugin, taskScheduler);
+        GeneratorFixture.awaitLoad(reloaded);
+        long loadNanos = reloaded.getMetrics().getLoadNanos();
+        int reloadedCount = reloaded.getGeneratorCount();
+        reloaded.shutdown();
+
+        printReport(runNanos, metrics, shutdownNanos, loadNanos, reloadedCount, baselineHeap, endHeap);
+
+        if (temporary) {
+            try (Stream<Path> files = Files.walk(dataFolder)) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    // Chunks are dealt round-robin to worlds; generators round-robin to chunks
+    private void layOut() {
+        World[] worlds = new World[worldCount];
+        for (int i = 0; i < worldCount; i++) {
+            worlds[i] = StandIns.world(i == 0 ? StandIns.WORLD_NAME : StandIns.WORLD_NAME + "_" + i);
+        }
+
+        chunkWorlds = new World[chunkCount];
+        chunkXs = new int[chunkCount];
+        chunkZs = new int[chunkCount];
+        unloaded = new boolean[chunkCount];
+        int perWorld = (chunkCount + worldCount - 1) / worldCount;
+        int side = (int) Math.ceil(Math.sqrt(perWorld));
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            int local = chunk / worldCount;
+            chunkWorlds[chunk] = worlds[chunk % worldCount];
+            chunkXs[chunk] = local % side - side / 2;
+            chunkZs[chunk] = local / side - side / 2;
+        }
+
+        locations = new Location[generatorCount];
+        for (int i = 0; i < generatorCount; i++) {
+            int chunk = i % chunkCount;
+            int slot = i / chunkCount;
+            locations[i] = new Location(chunkWorlds[chunk], (chunkXs[chunk] << 4) + (slot & 15),
+                    64 + (slot >> 8), (chunkZs[chunk] << 4) + ((slot >> 4) & 15));
+        }
+
+        owners = new UUID[(generatorCount + GeneratorFixture.PER_OWNER - 1) / GeneratorFixture.PER_OWNER];
+        for (int i = 0; i < owners.length; i++) {
+            owners[i] = new UUID(0xF6A7L, i);
+        }
+    }
+
+    // Fractional rates become a whole number of events on average
+    private int events(double rate) {
+        int whole = (int) rate;
+        return whole + (random.nextDouble() < rate - whole ? 1 : 0);
+    }
+
+    private void churnChunks() {
+        long now = StandIns.getCurrentTick();
+        while (!reloads.isEmpty() && reloads.peekFirst()[0] <= now) {
+            int chunk = (int) reloads.pollFirst()[1];
+            StandIns.setChunkLoaded(chunkWorlds[chunk], chunkXs[chunk], chunkZs[chunk], true);
+            manager.onChunkLoad(chunkWorlds[chunk].getName(), chunkXs[chunk], chunkZs[chunk]);
+            unloaded[chunk] = false;
+        }
+
+        for (int i = events(chunkChurn); i > 0; i--) {
+            int chunk = random.nextInt(chunkCount);
+            if (unloaded[chunk]) {
+                continue;
+            }
+            unloaded[chunk] = true;
+            chunkUnloads++;
+            StandIns.setChunkLoaded(chunkWorlds[chunk], chunkXs[chunk], chunkZs[chunk], false);
+            manager.onChunkUnload(chunkWorlds[chunk].getName(), chunkXs[chunk], chunkZs[chunk]);
+            reloads.addLast(new long[]{now + unloadTicks, chunk});
+        }
+    }
+
+    private void editGenerators() {
+        for (int i = events(edits); i > 0; i--) {
+            Generator generator = manager.getGeneratorAt(locations[random.nextInt(generatorCount)]);
+            if (generator == null) {
+                continue;
+            }
+            guiEdits++;
+            switch (random.nextInt(4)) {
+                case 0 -> manager.setSpawnRate(generator, 10 + random.nextInt(291));
+                // Mostly on, as players leave them
+                case 1 -> manager.setEnabled(generator, random.nextInt(10) != 0);
+                case 2 -> {
+                    Generator.SpawnDirection[] directions = Generator.SpawnDirection.values();
+                    manager.setDirection(generator, directions[random.nextInt(directions.length)]);
+                }
+                default -> {
+                    LootTable loot = generator.getLoot();
+                    ItemStack item = new ItemStack(LOOT[random.nextInt(LOOT.length)], 1);
+                    int index = loot.indexOf(item);
+                    if (index >= 0) {
+                        manager.setLoot(generator, loot.withWeight(index, 1 + random.nextInt(LootTable.MAX_WEIGHT)));
+                    } else if (loot.size() < 10) {
+                        manager.setLoot(generator, loot.withEntry(item, 1 + random.nextInt(LootTable.MAX_WEIGHT)));
+                    }
+                }
+            }
+        }
+    }
+
+    private void breakGenerators() {
+        for (int i = events(breaks); i > 0; i--) {
+            int index = random.nextInt(generatorCount);
+            Generator generator = manager.getGeneratorAt(locations[index]);
+            if (generator != null && manager.removeGenerator(generator.getId())) {
+                blockBreaks++;
+                manager.createGenerator(locations[index], owners[index / GeneratorFixture.PER_OWNER]);
+            }
+        }
+    }
+
+    private void printProgress(int tick) {
+        GeneratorMetrics metrics = manager.getMetrics();
+        System.out.printf(Locale.ROOT,
+                "tick %,7d  work p50 %6.2f ms  p99 %6.2f ms  max %7.2f ms  items %,12d  entities %,9d  heap %s%n",
+                tick, tickNanos.getQuantile(0.50) / 1e6, tickNanos.getQuantile(0.99) / 1e6, tickNanos.getMax() / 1e6,
+                metrics.getItemsSpawned(), StandIns.getItemEntityCount(),
+                formatBytes(memory.getHeapMemoryUsage().getUsed()));
+    }
+
+    private void printReport(long runNanos, GeneratorMetrics metrics, long shutdownNanos, long loadNanos,
+                             int reloadedCount, long baselineHeap, long endHeap) {
+        Histogram spawn = metrics.getSpawnHistogram();
+        Histogram scan = metrics.getScanHistogram();
+        Histogram perCycle = metrics.getItemsPerCycleHistogram();
+        Histogram save = metrics.getSaveHistogram();
+
+        System.out.println();
+        System.out.printf(Locale.ROOT, "Simulated %,d ticks in %.1f s (%s)%n", ticks, runNanos / 1e9,
+                paced ? "paced at 50 ms" : "unpaced");
+        System.out.printf(Locale.ROOT, "Events: %,d chunk unloads, %,d GUI edits, %,d generators broken and re-placed%n",
+                chunkUnloads, guiEdits, blockBreaks);
+        System.out.println();
+        System.out.println("Tick work (main thread, per tick)");
+        printDistribution(tickNanos);
+        System.out.printf(Locale.ROOT, "  over 50 ms: %,d ticks%n", slowTicks);
+        System.out.println("Spawn cycles");
+        System.out.printf(Locale.ROOT, "  cycles %,d, generators processed %,d, items spawned %,d%n",
+                metrics.getCycles(), metrics.getGeneratorsProcessed(), metrics.getItemsSpawned());
+        System.out.print("  spawn time:");
+        printDistribution(spawn);
+        System.out.print("  scan time: ");
+        printDistribution(scan);
+        System.out.printf(Locale.ROOT, "  items per cycle: p50 %,d  p99 %,d  max %,d%n",
+                perCycle.getQuantile(0.50), perCycle.getQuantile(0.99), perCycle.getMax());
+        System.out.printf(Locale.ROOT, "  skipped: %,d over budget, %,d unloaded, %,d disabled%n",
+                metrics.getSkippedOverBudget(), metrics.getSkippedUnloaded(), metrics.getSkippedDisabled());
+        System.out.println("Item entities");
+        System.out.printf(Locale.ROOT, "  dropped %,d, despawned %,d, on the ground at the end %,d%n",
+                StandIns.getDroppedItems(), StandIns.getDespawnedItems(), groundItems);
+        System.out.printf(Locale.ROOT, "  ledger: %,d tracked, %,d items held back at the cap%n",
+                manager.getItemLedger().getTrackedCount(), manager.getItemLedger().getHeldBackItems());
+        System.out.println("Storage");
+        System.out.printf(Locale.ROOT, "  snapshots during the run: %,d", save.getCount());
+        if (save.getCount() > 0) {
+            System.out.printf(Locale.ROOT, ", p50 %.1f ms, max %.1f ms", save.getQuantile(0.50) / 1e6, save.getMax() / 1e6);
+        }
+        System.out.println();
+        System.out.printf(Locale.ROOT, "  shutdown save %.1f ms, cold load of %,d generators %.1f ms%n",
+                shutdownNanos / 1e6, reloadedCount, loadNanos / 1e6);
+        System.out.println("Heap");
+        System.out.printf(Locale.ROOT, "  after placing %s, peak %s, after the run %s (growth %s)%n",
+                formatBytes(baselineHeap), formatBytes(peakHeap), formatBytes(endHeap),
+                formatBytes(endHeap - baselineHeap));
+    }
+
+    private static void printDistribution(Histogram histogram) {
+        System.out.printf(Locale.ROOT, " p50 %.3f ms  p95 %.3f ms  p99 %.3f ms  max %.3f ms  mean %.3f ms%n",
+                histogram.getQuantile(0.50) / 1e6, histogram.getQuantile(0.95) / 1e6,
+                histogram.getQuantile(0.99) / 1e6, histogram.getMax() / 1e6, histogram.getMean() / 1e6);
+    }
+
+    private static String formatBytes(long bytes) {
+        return String.format(Locale.ROOT, "%s%.1f MB", bytes < 0 ? "-" : "", Math.abs(bytes) / (1024.0 * 1024.0));
+    }
+}
@@ -0,0 +1,78 @@
+package com.speedier.fracturegens.benchmarks;
+
+import com.speedier.fracturegens.managers.GeneratorManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full spawn cycle with every generator due: the scheduler poll, output
+ * sampling, item creation, the drop and the ground-item ledger. The cycle runs
+ * on a virtual clock that advances by the minimum output interval each call,
+ * so each invocation does the same amount of work instead of finding nothing
+ * due after the first.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SpawnTickBenchmark {
+    private static final long INTERVAL_MILLIS = 100 * 50L;
+
+    @Param({"1000", "10000", "100000"})
+    public int generators;
+
+    // The ground-item ledger is on by default; off shows the cost of spawning alone
+    @Param({"true", "false"})
+    public boolean trackGroundItems;
+
+    private GeneratorFixture fixture;
+    private GeneratorManager manager;
+    private MethodHandle processGenerators;
+    private long clock;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture = new GeneratorFixture(generators, Map.of(
+                "generators.min-output-interval", INTERVAL_MILLIS / 50,
+                "generators.ground-items.track", trackGroundItems));
+        manager = fixture.getManager();
+
+        // The spawn cycle is private; the timer that normally calls it never fires here
+        processGenerators = MethodHandles.privateLookupIn(GeneratorManager.class, MethodHandles.lookup())
+                .findVirtual(GeneratorManager.class, "processGenerators",
+                        MethodType.methodType(void.class, long.class));
+        clock = System.currentTimeMillis();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        fixture.close();
+    }
+
+    @Benchmark
+    public long tick() throws Throwable {
+        clock += INTERVAL_MILLIS;
+        processGenerators.invokeExact(manager, clock);
+        return manager.getMetrics().getItemsSpawned();
+    }
+}
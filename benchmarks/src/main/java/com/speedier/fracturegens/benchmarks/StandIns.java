@@ -0,0 +1,413 @@
+package com.speedier.fracturegens.benchmarks;
+
+import com.speedier.fracturegens.utils.LocationKeys;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.UnsafeValues;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Item;
+import org.bukkit.inventory.ItemFactory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Lightweight stand-ins for the parts of the Bukkit API the plugin touches, so
+ * the real manager, scheduler and storage code can run without a server. They
+ * are dynamic proxies: a handful of methods have answers, everything else
+ * returns false, zero, an empty collection or null. World calls are close to
+ * free, so results measure the plugin's own work rather than the server's.
+ *
+ * <p>Time only moves when {@link #tick()} is called. Until then timers never
+ * fire, which is what the JMH benchmarks want; the soak simulator ticks it
+ * like a server would. Tasks handed to the main thread wait for the next tick,
+ * async tasks run on a thread pool.
+ */
+public final class StandIns {
+    public static final String WORLD_NAME = "world";
+
+    private static final Logger LOGGER = quietLogger("FractureGens");
+    private static final Map<UUID, Item> ENTITIES = new ConcurrentHashMap<>();
+    private static final Map<String, World> WORLDS = new LinkedHashMap<>();
+    private static final Map<String, Set<Long>> UNLOADED_CHUNKS = new ConcurrentHashMap<>();
+    private static final Queue<Runnable> MAIN_THREAD_TASKS = new ConcurrentLinkedQueue<>();
+    private static final List<Timer> TIMERS = new ArrayList<>();
+    private static final ArrayDeque<Drop> DROPS = new ArrayDeque<>();
+    private static final AtomicInteger TASK_IDS = new AtomicInteger();
+    private static final String ASYNC_THREAD_PREFIX = "StandIn-Async-";
+    private static final ExecutorService ASYNC = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, ASYNC_THREAD_PREFIX + TASK_IDS.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static boolean installed;
+    private static long currentTick;
+    private static int itemDespawnTicks;
+    private static long droppedItems;
+    private static long despawnedItems;
+
+    private static final class Timer {
+        private final int id;
+        private final Runnable task;
+        private final long period;
+        private final BukkitTask handle;
+        private long nextRun;
+        private volatile boolean cancelled;
+
+        private Timer(Runnable task, long delay, long period) {
+            this.id = TASK_IDS.incrementAndGet();
+            this.task = task;
+            this.period = period;
+            this.nextRun = currentTick + Math.max(1, delay);
+            this.handle = stub(BukkitTask.class, Map.of(
+                    "getTaskId", args -> id,
+                    "cancel", args -> cancelled = true,
+                    "isCancelled", args -> cancelled,
+                    "isSync", args -> true));
+        }
+    }
+
+    private static final class Drop {
+        private final long tick;
+        private final UUID id;
+
+        private Drop(long tick, UUID id) {
+            this.tick = tick;
+            this.id = id;
+        }
+    }
+
+    private StandIns() {
+    }
+
+    // Bukkit's server is a JVM-wide singleton; every benchmark state shares one
+    public static synchronized World install() {
+        if (installed) {
+            return world(WORLD_NAME);
+        }
+        installed = true;
+
+        BukkitTask done = stub(BukkitTask.class, Map.of("getTaskId", args -> -1, "isCancelled", args -> true));
+        Map<String, Function<Object[], Object>> scheduler = new HashMap<>();
+        scheduler.put("runTaskTimer", args -> schedule(args[1], (Long) args[2], (Long) args[3]));
+        scheduler.put("runTaskTimerAsynchronously", args -> schedule(args[1], (Long) args[2], (Long) args[3]));
+        scheduler.put("runTaskLater", args -> schedule(args[1], (Long) args[2], -1));
+        scheduler.put("runTaskLaterAsynchronously", args -> schedule(args[1], (Long) args[2], -1));
+        scheduler.put("runTask", args -> {
+            MAIN_THREAD_TASKS.add((Runnable) args[1]);
+            return done;
+        });
+        scheduler.put("runTaskAsynchronously", args -> {
+            ASYNC.execute((Runnable) args[1]);
+            return done;
+        });
+        scheduler.put("cancelTask", args -> {
+            cancel((Integer) args[0]);
+            return null;
+        });
+        BukkitScheduler bukkitScheduler = stub(BukkitScheduler.class, scheduler);
+
+        ItemFactory itemFactory = stub(ItemFactory.class, Map.of(
+                "equals", args -> args.length == 2 ? Objects.equals(args[0], args[1]) : false));
+        UnsafeValues unsafe = stub(UnsafeValues.class, Map.of(
+                "getDataVersion", args -> 4082,
+                "getMaterial", args -> Material.getMaterial((String) args[0])));
+
+        Map<String, Function<Object[], Object>> server = new HashMap<>();
+        server.put("getLogger", args -> LOGGER);
+        server.put("getName", args -> "StandIn");
+        server.put("getVersion", args -> "benchmark");
+        server.put("getBukkitVersion", args -> "1.21.3-R0.1-SNAPSHOT");
+        server.put("getWorlds", args -> getWorlds());
+        server.put("getWorld", args -> findWorld(args[0]));
+        server.put("getScheduler", args -> bukkitScheduler);
+        server.put("getItemFactory", args -> itemFactory);
+        server.put("getUnsafe", args -> unsafe);
+        server.put("getEntity", args -> ENTITIES.get((UUID) args[0]));
+        server.put("isPrimaryThread", args -> !Thread.currentThread().getName().startsWith(ASYNC_THREAD_PREFIX));
+        Bukkit.setServer(stub(Server.class, server));
+        return world(WORLD_NAME);
+    }
+
+    // Worlds exist as soon as they are asked for; all their chunks start loaded
+    public static synchronized World world(String name) {
+        return WORLDS.computeIfAbsent(name, worldName -> {
+            UUID worldId = UUID.nameUUIDFromBytes(worldName.getBytes(StandardCharsets.UTF_8));
+            Set<Long> unloaded = UNLOADED_CHUNKS.computeIfAbsent(worldName, k -> ConcurrentHashMap.newKeySet());
+            return stub(World.class, Map.of(
+                    "getName", args -> worldName,
+                    "getUID", args -> worldId,
+                    "isChunkLoaded", args -> args.length != 2
+                            || !unloaded.contains(LocationKeys.chunkKey((Integer) args[0], (Integer) args[1])),
+                    "dropItem", args -> dropItem((ItemStack) args[1]),
+                    "dropItemNaturally", args -> dropItem((ItemStack) args[1])));
+        });
+    }
+
+    public static void setChunkLoaded(World world, int chunkX, int chunkZ, boolean loaded) {
+        Set<Long> unloaded = UNLOADED_CHUNKS.get(world.getName());
+        if (loaded) {
+            unloaded.remove(LocationKeys.chunkKey(chunkX, chunkZ));
+        } else {
+            unloaded.add(LocationKeys.chunkKey(chunkX, chunkZ));
+        }
+    }
+
+    private static synchronized List<World> getWorlds() {
+        return new ArrayList<>(WORLDS.values());
+    }
+
+    private static synchronized World findWorld(Object key) {
+        if (key instanceof String name) {
+            return WORLDS.get(name);
+        }
+        for (World world : WORLDS.values()) {
+            if (world.getUID().equals(key)) {
+                return world;
+            }
+        }
+        return null;
+    }
+
+    public static Plugin plugin(File dataFolder, Map<String, Object> settings) {
+        install();
+        YamlConfiguration config = defaultConfig();
+        settings.forEach(config::set);
+        return stub(Plugin.class, Map.of(
+                "getConfig", args -> config,
+                "getLogger", args -> LOGGER,
+                "getDataFolder", args -> dataFolder,
+                "getName", args -> "FractureGens",
+                "isEnabled", args -> true,
+                "getServer", args -> Bukkit.getServer(),
+                "toString", args -> "FractureGens"));
+    }
+
+    /**
+     * Advances one server tick: despawns old items, runs the tasks queued for
+     * the main thread, then every timer that is due.
+     */
+    public static void tick() {
+        currentTick++;
+        despawnItems();
+        runMainThreadTasks();
+
+        List<Timer> due = new ArrayList<>();
+        synchronized (TIMERS) {
+            TIMERS.removeIf(timer -> timer.cancelled);
+            for (Timer timer : TIMERS) {
+                if (timer.nextRun <= currentTick) {
+                    due.add(timer);
+                }
+            }
+        }
+        for (Timer timer : due) {
+            if (timer.cancelled) {
+                continue;
+            }
+            if (timer.period > 0) {
+                timer.nextRun = currentTick + timer.period;
+            } else {
+                timer.cancelled = true;
+            }
+            timer.task.run();
+        }
+    }
+
+    public static void runMainThreadTasks() {
+        Runnable task;
+        while ((task = MAIN_THREAD_TASKS.poll()) != null) {
+            task.run();
+        }
+    }
+
+    public static long getCurrentTick() {
+        return currentTick;
+    }
+
+    // Items older than this are removed on tick, as vanilla does after five
+    // minutes; 0 keeps them forever
+    public static void setItemDespawnTicks(int ticks) {
+        itemDespawnTicks = ticks;
+    }
+
+    public static int getItemEntityCount() {
+        return ENTITIES.size();
+    }
+
+    public static long getDroppedItems() {
+        return droppedItems;
+    }
+
+    public static long getDespawnedItems() {
+        return despawnedItems;
+    }
+
+    // Dropped items stay reachable, as they would on the ground, until cleared
+    public static void clearEntities() {
+        ENTITIES.clear();
+        DROPS.clear();
+    }
+
+    private static BukkitTask schedule(Object task, long delay, long period) {
+        if (!(task instanceof Runnable runnable)) {
+            throw new UnsupportedOperationException("Only Runnable tasks are supported");
+        }
+        Timer timer = new Timer(runnable, delay, period);
+        synchronized (TIMERS) {
+            TIMERS.add(timer);
+        }
+        return timer.handle;
+    }
+
+    private static void cancel(int taskId) {
+        synchronized (TIMERS) {
+            for (Timer timer : TIMERS) {
+                if (timer.id == taskId) {
+                    timer.cancelled = true;
+                }
+            }
+        }
+    }
+
+    private static Item dropItem(ItemStack stack) {
+        UUID id = UUID.randomUUID();
+        ItemStack[] held = {stack.clone()};
+        Item item = stub(Item.class, Map.of(
+                "getUniqueId", args -> id,
+                "getItemStack", args -> held[0],
+                "setItemStack", args -> held[0] = (ItemStack) args[0],
+                "isValid", args -> ENTITIES.containsKey(id),
+                "isDead", args -> !ENTITIES.containsKey(id),
+                "remove", args -> ENTITIES.remove(id)));
+        ENTITIES.put(id, item);
+        droppedItems++;
+        if (itemDespawnTicks > 0) {
+            DROPS.add(new Drop(currentTick, id));
+        }
+        return item;
+    }
+
+    private static void despawnItems() {
+        Drop drop;
+        while ((drop = DROPS.peekFirst()) != null && currentTick - drop.tick >= itemDespawnTicks) {
+            DROPS.pollFirst();
+            if (ENTITIES.remove(drop.id) != null) {
+                despawnedItems++;
+            }
+        }
+    }
+
+    private static YamlConfiguration defaultConfig() {
+        InputStream stream = StandIns.class.getResourceAsStream("/config.yml");
+        if (stream == null) {
+            return new YamlConfiguration();
+        }
+        return YamlConfiguration.loadConfiguration(new InputStreamReader(stream, StandardCharsets.UTF_8));
+    }
+
+    private static Logger quietLogger(String name) {
+        Logger logger = Logger.getLogger(name);
+        logger.setLevel(Level.WARNING);
+        return logger;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            Object[] arguments = args == null ? new Object[0] : args;
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(arguments);
+            }
+
+            switch (method.getName()) {
+                case "equals":
+                    if (arguments.length == 1) {
+                        return proxy == arguments[0];
+                    }
+                    break;
+                case "hashCode":
+                    if (arguments.length == 0) {
+                        return System.identityHashCode(proxy);
+                    }
+                    break;
+                case "toString":
+                    if (arguments.length == 0) {
+                        return "StandIn[" + type.getSimpleName() + "]";
+                    }
+                    break;
+                default:
+                    break;
+            }
+            return defaultValue(method.getReturnType());
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0.0;
+        }
+        if (type == float.class) {
+            return 0.0f;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == Set.class) {
+            return Set.of();
+        }
+        if (type == Map.class) {
+            return Map.of();
+        }
+        if (type == List.class || type == Collection.class) {
+            return List.of();
+        }
+        return null;
+    }
+}
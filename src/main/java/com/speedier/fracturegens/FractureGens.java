@@ -2,9 +2,15 @@ package com.speedier.fracturegens;
 
 import com.speedier.fracturegens.commands.FractureGensCommand;
 import com.speedier.fracturegens.listeners.BlockInteractionListener;
+import com.speedier.fracturegens.listeners.ChunkListener;
+import com.speedier.fracturegens.listeners.ContainerListener;
 import com.speedier.fracturegens.listeners.GUIListener;
+import com.speedier.fracturegens.listeners.GroundItemListener;
+import com.speedier.fracturegens.listeners.PlayerTrackingListener;
+import com.speedier.fracturegens.listeners.WorldListener;
 import com.speedier.fracturegens.managers.GeneratorManager;
-import org.bukkit.Bukkit;
+import com.speedier.fracturegens.scheduler.TaskScheduler;
+import com.speedier.fracturegens.utils.PerformanceUtils;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.util.HashMap;
@@ -14,6 +20,7 @@ import java.util.Set;
 import java.util.UUID;
 
 public class FractureGens extends JavaPlugin {
+    private TaskScheduler taskScheduler;
     private GeneratorManager generatorManager;
     private Set<UUID> playersInCreationMode = new HashSet<>();
     private Map<UUID, Object> openGUIs = new HashMap<>();
@@ -21,16 +28,21 @@ public class FractureGens extends JavaPlugin {
     @Override
     public void onEnable() {
         saveDefaultConfig();
+        this.taskScheduler = TaskScheduler.create(this);
+        PerformanceUtils.startTickSampler(taskScheduler, getConfig().getLong("performance.lag-spike-millis", 100));
         
-        this.generatorManager = new GeneratorManager(this);
+        this.generatorManager = new GeneratorManager(this, taskScheduler);
         
         registerListeners();
         registerCommands();
         
         getLogger().info("FractureGens v" + getDescription().getVersion() + " has been enabled!");
-        getLogger().info("Loaded " + generatorManager.getAllGenerators().size() + " generators");
+        getLogger().info("Loaded " + generatorManager.getGeneratorCount() + " generators");
+        if (taskScheduler.isRegionThreaded()) {
+            getLogger().info("Region-threaded server detected, spawning per chunk on region threads");
+        }
         
-        Bukkit.getScheduler().runTaskLater(this, () -> {
+        taskScheduler.runLater(() -> {
             getLogger().info("Performance settings:");
             getLogger().info("- Max generators per chunk: " + getConfig().getInt("performance.max-generators-per-chunk"));
             getLogger().info("- Max generators per player: " + getConfig().getInt("performance.max-generators-per-player"));
@@ -44,6 +56,7 @@ public class FractureGens extends JavaPlugin {
         if (generatorManager != null) {
             generatorManager.shutdown();
         }
+        PerformanceUtils.stopTickSampler();
         
         getLogger().info("FractureGens has been disabled!");
     }
@@ -51,6 +64,11 @@ public class FractureGens extends JavaPlugin {
     private void registerListeners() {
         getServer().getPluginManager().registerEvents(new BlockInteractionListener(this, generatorManager), this);
         getServer().getPluginManager().registerEvents(new GUIListener(this), this);
+        getServer().getPluginManager().registerEvents(new ChunkListener(generatorManager), this);
+        getServer().getPluginManager().registerEvents(new ContainerListener(generatorManager), this);
+        getServer().getPluginManager().registerEvents(new WorldListener(generatorManager), this);
+        getServer().getPluginManager().registerEvents(new PlayerTrackingListener(generatorManager), this);
+        getServer().getPluginManager().registerEvents(new GroundItemListener(generatorManager.getItemLedger()), this);
     }
     
     private void registerCommands() {
@@ -2,7 +2,18 @@ package com.speedier.fracturegens.commands;
 
 import com.speedier.fracturegens.FractureGens;
 import com.speedier.fracturegens.managers.GeneratorManager;
+import com.speedier.fracturegens.metrics.GeneratorMetrics;
+import com.speedier.fracturegens.metrics.Histogram;
+import com.speedier.fracturegens.metrics.ProfileReport;
+import com.speedier.fracturegens.metrics.SpawnProfiler;
 import com.speedier.fracturegens.models.Generator;
+import com.speedier.fracturegens.scheduler.SpawnBudget;
+import com.speedier.fracturegens.scheduler.SpawnGovernor;
+import com.speedier.fracturegens.scheduler.TaskScheduler;
+import com.speedier.fracturegens.storage.GeneratorStore;
+import com.speedier.fracturegens.utils.PerformanceUtils;
+import com.speedier.fracturegens.utils.TickSampler;
+import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -10,11 +21,21 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
 
 public class FractureGensCommand implements CommandExecutor, TabCompleter {
+    private static final int MAX_PROFILE_SECONDS = 600;
     private final FractureGens plugin;
     private final GeneratorManager generatorManager;
     
@@ -106,15 +127,35 @@ public class FractureGensCommand implements CommandExecutor, TabCompleter {
                     return true;
                 }
                 
-                int totalGenerators = generatorManager.getAllGenerators().size();
-                long enabledGenerators = generatorManager.getAllGenerators().stream()
-                    .mapToLong(gen -> gen.isEnabled() ? 1 : 0)
-                    .sum();
+                int totalGenerators = generatorManager.getGeneratorCount();
+                int enabledGenerators = generatorManager.getEnabledGeneratorCount();
                 
                 sendMessage(sender, "&6FractureGens Statistics:");
                 sendMessage(sender, "&7Total Generators: &f" + totalGenerators);
                 sendMessage(sender, "&7Enabled Generators: &f" + enabledGenerators);
                 sendMessage(sender, "&7Disabled Generators: &f" + (totalGenerators - enabledGenerators));
+                sendMessage(sender, "&7Detached Generators: &f" + generatorManager.getDetachedGeneratorCount() + 
+                    " &7(world not loaded)");
+                sendMessage(sender, "&7Active Generators: &f" + generatorManager.getActiveGeneratorCount() + 
+                    " &7(in loaded chunks)");
+                sendMessage(sender, "&7Idle Generators: &f" + generatorManager.getIdleGeneratorCount() + 
+                    " &7(no player nearby)");
+                sendMessage(sender, "&7Tracked Ground Items: &f" + generatorManager.getItemLedger().getTrackedCount() + 
+                    " &7(&f" + generatorManager.getItemLedger().getHeldBackItems() + " &7items held back at cap)");
+                sendTickStats(sender);
+                sendBudgetStats(sender);
+                sendMetricsStats(sender);
+                sendStorageStats(sender);
+                break;
+                
+            case "profile":
+                if (!sender.hasPermission("fracturegens.admin")) {
+                    sendMessage(sender, plugin.getConfig().getString("messages.no-permission", 
+                        "&cYou don't have permission to do that!"));
+                    return true;
+                }
+                
+                startProfile(sender, label, args);
                 break;
                 
             default:
@@ -129,11 +170,11 @@ public class FractureGensCommand implements CommandExecutor, TabCompleter {
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         if (args.length == 1) {
             List<String> completions = new ArrayList<>();
-            List<String> commands = Arrays.asList("help", "create", "reload", "list", "stats");
+            List<String> commands = Arrays.asList("help", "create", "reload", "list", "stats", "profile");
             
             for (String cmd : commands) {
                 if (cmd.toLowerCase().startsWith(args[0].toLowerCase())) {
-                    if (cmd.equals("reload") || cmd.equals("stats")) {
+                    if (cmd.equals("reload") || cmd.equals("stats") || cmd.equals("profile")) {
                         if (sender.hasPermission("fracturegens.admin")) {
                             completions.add(cmd);
                         }
@@ -158,6 +199,7 @@ public class FractureGensCommand implements CommandExecutor, TabCompleter {
         if (sender.hasPermission("fracturegens.admin")) {
             sendMessage(sender, "&e/fracturegens reload &7- Reload the configuration");
             sendMessage(sender, "&e/fracturegens stats &7- Show plugin statistics");
+            sendMessage(sender, "&e/fracturegens profile <seconds> [dump] &7- Find the generators costing the most tick time");
         }
         
         sendMessage(sender, "");
@@ -168,6 +210,232 @@ public class FractureGensCommand implements CommandExecutor, TabCompleter {
         sendMessage(sender, "&7• Break a generator block to remove it");
     }
     
+    private void startProfile(CommandSender sender, String label, String[] args) {
+        int seconds;
+        try {
+            seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        } catch (NumberFormatException e) {
+            sendMessage(sender, "&cUsage: &f/" + label + " profile <seconds> [dump]");
+            return;
+        }
+        seconds = Math.max(1, Math.min(MAX_PROFILE_SECONDS, seconds));
+        boolean dump = args.length > 2 && args[2].equalsIgnoreCase("dump");
+        
+        SpawnProfiler profiler = generatorManager.getSpawnProfiler();
+        if (!profiler.start()) {
+            sendMessage(sender, "&cA profile is already running.");
+            return;
+        }
+        sendMessage(sender, "&7Profiling generator spawns for &f" + seconds + "s&7...");
+        
+        TaskScheduler taskScheduler = generatorManager.getTaskScheduler();
+        taskScheduler.runLater(() -> {
+            SpawnProfiler.Samples samples = profiler.stop();
+            if (samples == null) {
+                return;
+            }
+            
+            // Grouping and the file dump can be large, so they happen off the main thread
+            taskScheduler.runAsync(() -> {
+                ProfileReport report = ProfileReport.aggregate(samples);
+                File dumpFile = dump ? writeProfileDump(report) : null;
+                taskScheduler.run(() -> sendProfile(sender, report, dumpFile));
+            });
+        }, seconds * 20L);
+    }
+    
+    private void sendProfile(CommandSender sender, ProfileReport report, File dumpFile) {
+        if (sender instanceof Player && !((Player) sender).isOnline()) {
+            return;
+        }
+        
+        ProfileReport.Entry total = report.getTotal();
+        double wallSeconds = report.getWallNanos() / 1e9;
+        sendMessage(sender, "&6Spawn Profile (&f" + String.format("%.1f", wallSeconds) + "s&6):");
+        sendMessage(sender, "&7Total: &f" + total.getSpawns() + " &7spawns, &f" + total.getItems() + " &7items, &f" + 
+            formatMillis(total.getNanos()) + " &7(&f" + formatMillis((long) (total.getNanos() / (wallSeconds * 20))) + 
+            " &7per tick)" + (report.getDropped() > 0 ? " &c" + report.getDropped() + " samples dropped" : ""));
+        if (total.getSpawns() == 0) {
+            return;
+        }
+        
+        int top = Math.max(1, plugin.getConfig().getInt("metrics.profile-top", 5));
+        sendMessage(sender, "&6Top chunks:");
+        for (ProfileReport.Entry entry : report.getChunks().subList(0, Math.min(top, report.getChunks().size()))) {
+            sendMessage(sender, "&7- &f" + entry.getWorld() + " " + entry.getChunkX() + "," + entry.getChunkZ() + 
+                " " + formatProfileEntry(report, entry));
+        }
+        sendMessage(sender, "&6Top owners:");
+        for (ProfileReport.Entry entry : report.getOwners().subList(0, Math.min(top, report.getOwners().size()))) {
+            sendMessage(sender, "&7- &f" + getOwnerName(entry.getOwner()) + " " + formatProfileEntry(report, entry));
+        }
+        sendMessage(sender, "&6Worlds:");
+        for (ProfileReport.Entry entry : report.getWorlds().subList(0, Math.min(top, report.getWorlds().size()))) {
+            sendMessage(sender, "&7- &f" + entry.getWorld() + " " + formatProfileEntry(report, entry));
+        }
+        
+        if (dumpFile != null) {
+            sendMessage(sender, "&7Full report written to &f" + dumpFile.getPath());
+        }
+    }
+    
+    private String formatProfileEntry(ProfileReport report, ProfileReport.Entry entry) {
+        return "&f" + formatMillis(entry.getNanos()) + " &7(&f" + String.format("%.1f", report.getShare(entry) * 100) + 
+            "%&7), &f" + entry.getSpawns() + " &7spawns, &f" + entry.getItems() + " &7items";
+    }
+    
+    private String formatMillis(long nanos) {
+        return String.format("%.2fms", nanos / 1_000_000.0);
+    }
+    
+    // Runs off the main thread, so owners are written as UUIDs rather than names
+    private File writeProfileDump(ProfileReport report) {
+        File file = new File(new File(plugin.getDataFolder(), "profiles"), 
+            "profile-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".txt");
+        StringBuilder out = new StringBuilder();
+        ProfileReport.Entry total = report.getTotal();
+        out.append("FractureGens spawn profile, ").append(String.format("%.1f", report.getWallNanos() / 1e9))
+            .append("s, ").append(total.getSpawns()).append(" spawns, ").append(total.getItems()).append(" items, ")
+            .append(formatMillis(total.getNanos())).append(" spawning");
+        if (report.getDropped() > 0) {
+            out.append(", ").append(report.getDropped()).append(" samples dropped");
+        }
+        out.append("\n\nshare\tmillis\tspawns\titems\tworld\n");
+        for (ProfileReport.Entry entry : report.getWorlds()) {
+            appendProfileRow(out, report, entry).append(entry.getWorld()).append('\n');
+        }
+        out.append("\nshare\tmillis\tspawns\titems\towner\n");
+        for (ProfileReport.Entry entry : report.getOwners()) {
+            appendProfileRow(out, report, entry).append(entry.getOwner()).append('\n');
+        }
+        out.append("\nshare\tmillis\tspawns\titems\tworld\tchunk\n");
+        for (ProfileReport.Entry entry : report.getChunks()) {
+            appendProfileRow(out, report, entry).append(entry.getWorld()).append('\t')
+                .append(entry.getChunkX()).append(',').append(entry.getChunkZ()).append('\n');
+        }
+        out.append("\nshare\tmillis\tspawns\titems\tworld\tlocation\towner\tgenerator\n");
+        for (ProfileReport.Entry entry : report.getGenerators()) {
+            Generator generator = entry.getGenerator();
+            appendProfileRow(out, report, entry).append(entry.getWorld()).append('\t')
+                .append(generator.getBlockX()).append(',').append(generator.getBlockY()).append(',')
+                .append(generator.getBlockZ()).append('\t').append(entry.getOwner()).append('\t')
+                .append(generator.getId()).append('\n');
+        }
+        
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            Files.write(file.toPath(), out.toString().getBytes(StandardCharsets.UTF_8));
+            return file;
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to write profile " + file.getName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
+    private StringBuilder appendProfileRow(StringBuilder out, ProfileReport report, ProfileReport.Entry entry) {
+        return out.append(String.format(Locale.ROOT, "%.2f%%\t%.3f\t", report.getShare(entry) * 100, 
+                entry.getNanos() / 1_000_000.0))
+            .append(entry.getSpawns()).append('\t').append(entry.getItems()).append('\t');
+    }
+    
+    private void sendStorageStats(CommandSender sender) {
+        GeneratorStore storage = generatorManager.getStorage();
+        sendMessage(sender, "&7Changes Since Last Save: &f" + storage.getPendingChanges() + 
+            (storage.isWriting() ? " &7(save in progress)" : ""));
+        
+        if (storage.getLastSaveTime() == 0) {
+            sendMessage(sender, "&7Last Save: &fnone yet");
+            return;
+        }
+        
+        long secondsAgo = (System.currentTimeMillis() - storage.getLastSaveTime()) / 1000;
+        String bytes = storage.getLastSaveBytes() >= 0 ? ", &f" + storage.getLastSaveBytes() + " &7bytes" : "";
+        sendMessage(sender, "&7Last Save: &f" + String.format("%.1f", storage.getLastSaveNanos() / 1_000_000.0) + 
+            "ms&7, &f" + storage.getLastSaveRecords() + " &7generators" + bytes + ", &f" + secondsAgo + "s &7ago (&f" + 
+            generatorManager.getSaveScheduler().getDeferredSaves() + " &7deferred while writing)");
+    }
+    
+    private void sendTickStats(CommandSender sender) {
+        TickSampler.Stats stats = PerformanceUtils.getTickStats();
+        if (stats == null || stats.getSamples() == 0) {
+            return;
+        }
+        
+        sendMessage(sender, "&7TPS: &f" + String.format("%.2f", stats.getTps()) + " &7(last &f" + 
+            stats.getSamples() + " &7ticks)");
+        sendMessage(sender, "&7Tick Time: &fp50 " + String.format("%.1f", stats.getP50Millis()) + 
+            "ms&7, &fp95 " + String.format("%.1f", stats.getP95Millis()) + 
+            "ms&7, &fp99 " + String.format("%.1f", stats.getP99Millis()) + 
+            "ms&7, &fmax " + String.format("%.1f", stats.getMaxMillis()) + "ms");
+        sendMessage(sender, "&7Lag Spikes: &f" + PerformanceUtils.getLagSpikes() + " &7since startup");
+    }
+    
+    private void sendMetricsStats(CommandSender sender) {
+        GeneratorMetrics metrics = generatorManager.getMetrics();
+        Histogram spawn = metrics.getSpawnHistogram();
+        Histogram scan = metrics.getScanHistogram();
+        sendMessage(sender, "&7Spawn Cycle: &fp50 " + formatMicros(spawn.getQuantile(0.50)) + 
+            "&7, &fp99 " + formatMicros(spawn.getQuantile(0.99)) + "&7, &fmax " + formatMicros(spawn.getMax()) + 
+            " &7(scan p99 &f" + formatMicros(scan.getQuantile(0.99)) + "&7)");
+        sendMessage(sender, "&7Main Thread Total: &f" + String.format("%.1f", metrics.getMainThreadNanos() / 1e9) + 
+            "s &7over &f" + metrics.getCycles() + " &7cycles, &f" + metrics.getItemsSpawned() + " &7items (p50 &f" + 
+            metrics.getItemsPerCycleP50() + "&7/cycle)");
+        sendMessage(sender, "&7Skipped: &f" + metrics.getSkippedUnloaded() + " &7unloaded, &f" + 
+            metrics.getSkippedDisabled() + " &7disabled, &f" + metrics.getSkippedOverBudget() + " &7over budget");
+        sendMessage(sender, "&7Indexes: &f" + metrics.getLocationIndexSize() + " &7blocks, &f" + 
+            metrics.getChunkIndexSize() + " &7chunks, &f" + metrics.getOwnerIndexSize() + " &7owners, &f" + 
+            metrics.getScheduledGenerators() + " &7scheduled");
+        if (metrics.getSaveHistogram().getCount() > 0) {
+            sendMessage(sender, "&7Save Time: &fp50 " + metrics.getSaveMillisP50() + "ms&7, &fp99 " + 
+                metrics.getSaveMillisP99() + "ms&7, &fmax " + metrics.getSaveMillisMax() + "ms");
+        }
+        if (metrics.getLoadMillis() >= 0) {
+            sendMessage(sender, "&7Load Time: &f" + metrics.getLoadMillis() + "ms");
+        }
+    }
+    
+    private String formatMicros(long nanos) {
+        return nanos >= 1_000_000 ? String.format("%.1fms", nanos / 1_000_000.0) : (nanos / 1000) + "µs";
+    }
+    
+    private void sendBudgetStats(CommandSender sender) {
+        SpawnBudget budget = generatorManager.getLastSpawnBudget();
+        if (budget == null) {
+            return;
+        }
+        
+        sendMessage(sender, "&7Last Cycle: &f" + budget.getUsed() + "/" + budget.getTotal() + 
+            " items &7(&f" + budget.getWaiting() + " &7waiting)");
+        
+        SpawnGovernor governor = generatorManager.getSpawnGovernor();
+        if (governor.getMaxBudgetNanos() != Long.MAX_VALUE) {
+            String tick = governor.getLastTickMillis() > 0 
+                ? String.format("%.1f", governor.getLastTickMillis()) + "ms" : "unknown";
+            sendMessage(sender, "&7Spawn Time Budget: &f" + String.format("%.2f", governor.getBudgetNanos() / 1_000_000.0) + 
+                "/" + String.format("%.2f", governor.getMaxBudgetNanos() / 1_000_000.0) + "ms &7(tick &f" + tick + 
+                "&7, last cycle &f" + String.format("%.2f", governor.getLastCycleNanos() / 1_000_000.0) + "ms&7, &f" + 
+                generatorManager.getSpawnBacklogSize() + " &7carried over, &f" + governor.getExhaustedCycles() + 
+                " &7cycles cut short)");
+        }
+        
+        String worldLimit = budget.getPerWorld() > 0 ? "/" + budget.getPerWorld() : "";
+        for (Map.Entry<String, Integer> entry : budget.getWorldUsage().entrySet()) {
+            sendMessage(sender, "&7- World " + entry.getKey() + ": &f" + entry.getValue() + worldLimit);
+        }
+        
+        String ownerLimit = budget.getPerOwner() > 0 ? "/" + budget.getPerOwner() : "";
+        budget.getOwnerUsage().entrySet().stream()
+            .sorted(Map.Entry.<UUID, Integer>comparingByValue().reversed())
+            .limit(5)
+            .forEach(entry -> sendMessage(sender, "&7- Owner " + getOwnerName(entry.getKey()) + ": &f" + 
+                entry.getValue() + ownerLimit));
+    }
+    
+    private String getOwnerName(UUID owner) {
+        String name = Bukkit.getOfflinePlayer(owner).getName();
+        return name != null ? name : owner.toString().substring(0, 8);
+    }
+    
     private void sendMessage(CommandSender sender, String message) {
         String prefix = plugin.getConfig().getString("messages.prefix", "&8[&6FractureGens&8]&r ");
         sender.sendMessage(ChatColor.translateAlternateColorCodes('&', prefix + message));
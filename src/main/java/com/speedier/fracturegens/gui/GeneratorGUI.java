@@ -3,6 +3,7 @@ package com.speedier.fracturegens.gui;
 import com.speedier.fracturegens.FractureGens;
 import com.speedier.fracturegens.managers.GeneratorManager;
 import com.speedier.fracturegens.models.Generator;
+import com.speedier.fracturegens.models.LootTable;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
@@ -69,6 +70,7 @@ public class GeneratorGUI {
             "&7Status: " + (generator.isEnabled() ? "&aEnabled" : "&cDisabled"),
             "&7Spawn Rate: &f" + generator.getSpawnRate() + " items/minute",
             "&7Direction: &f" + generator.getDirection().name(),
+            "&7Output: &f" + generator.getOutputMode().name(),
             "&7Items: &f" + generator.getItems().size() + " types",
             "",
             "&eClick to toggle on/off"
@@ -77,7 +79,8 @@ public class GeneratorGUI {
     }
     
     private void addItemsDisplay() {
-        List<ItemStack> items = generator.getItems();
+        LootTable loot = generator.getLoot();
+        List<ItemStack> items = loot.getItems();
         int startSlot = 19;
         
         for (int i = 0; i < Math.min(items.size(), 7); i++) {
@@ -86,6 +89,9 @@ public class GeneratorGUI {
             if (meta != null) {
                 List<String> lore = meta.hasLore() ? meta.getLore() : new ArrayList<>();
                 lore.add("");
+                lore.add(ChatColor.GRAY + "Weight: " + ChatColor.WHITE + loot.getWeight(i) + 
+                    ChatColor.GRAY + " (" + String.format("%.1f", loot.getChance(i) * 100) + "%)");
+                lore.add(ChatColor.YELLOW + "Click to raise weight, shift-click to lower");
                 lore.add(ChatColor.YELLOW + "Right-click to remove");
                 meta.setLore(lore);
                 displayItem.setItemMeta(meta);
@@ -126,6 +132,17 @@ public class GeneratorGUI {
             "&eClick to cycle through options"
         ));
         inventory.setItem(40, direction);
+        
+        ItemStack outputMode = createItem(Material.HOPPER, "&e&lOutput Mode", Arrays.asList(
+            "&7Current: &f" + generator.getOutputMode().name(),
+            "&7DROP: Items drop on the ground",
+            "&7CONTAINER: Items go into an adjacent",
+            "&7chest, barrel or hopper, and only",
+            "&7drop when it is full",
+            "",
+            "&eClick to cycle through options"
+        ));
+        inventory.setItem(41, outputMode);
     }
     
     private void addSettingsButtons() {
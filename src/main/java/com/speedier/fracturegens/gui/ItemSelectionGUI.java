@@ -3,6 +3,7 @@ package com.speedier.fracturegens.gui;
 import com.speedier.fracturegens.FractureGens;
 import com.speedier.fracturegens.managers.GeneratorManager;
 import com.speedier.fracturegens.models.Generator;
+import com.speedier.fracturegens.models.LootTable;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
@@ -119,7 +120,8 @@ public class ItemSelectionGUI {
                 meta.setDisplayName(ChatColor.YELLOW + formatMaterialName(material.name()));
                 meta.setLore(Arrays.asList(
                     ChatColor.GRAY + "Click to add this item",
-                    ChatColor.GRAY + "to your generator"
+                    ChatColor.GRAY + "to your generator",
+                    ChatColor.DARK_GRAY + "Already added? Click to raise its weight"
                 ));
                 item.setItemMeta(meta);
             }
@@ -175,15 +177,22 @@ public class ItemSelectionGUI {
     }
     
     public void addItemToGenerator(Material material) {
-        List<ItemStack> items = generator.getItems();
-        if (items.size() >= plugin.getConfig().getInt("generators.max-item-types", 10)) {
+        LootTable loot = generator.getLoot();
+        ItemStack newItem = new ItemStack(material, 1);
+        
+        // Picking an item that's already there raises its weight instead of
+        // adding a duplicate entry
+        int existing = loot.indexOf(newItem);
+        if (existing >= 0) {
+            int weight = Math.min(LootTable.MAX_WEIGHT, loot.getWeight(existing) + 1);
+            generatorManager.setLoot(generator, loot.withWeight(existing, weight));
             return;
         }
         
-        ItemStack newItem = new ItemStack(material, 1);
-        items.add(newItem);
-        generator.setItems(items);
-        generatorManager.saveGenerators();
+        if (loot.size() >= plugin.getConfig().getInt("generators.max-item-types", 10)) {
+            return;
+        }
+        generatorManager.setLoot(generator, loot.withEntry(newItem, 1));
     }
     
     private ItemStack createItem(Material material, String name, List<String> lore) {
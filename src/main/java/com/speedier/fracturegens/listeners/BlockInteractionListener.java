@@ -71,6 +71,15 @@ public class BlockInteractionListener implements Listener {
                 return;
             }
             
+            if (generatorManager.isLoadFailed()) {
+                sendMessage(player, "&cGenerator data failed to load, so generators are disabled. Check the server log.");
+                return;
+            }
+            if (!generatorManager.isLoaded()) {
+                sendMessage(player, "&cGenerators are still loading, try again in a moment.");
+                return;
+            }
+            
             if (generatorManager.createGenerator(block.getLocation(), player.getUniqueId())) {
                 event.setCancelled(true);
                 sendMessage(player, plugin.getConfig().getString("messages.generator-created", 
@@ -0,0 +1,29 @@
+package com.speedier.fracturegens.listeners;
+
+import com.speedier.fracturegens.managers.GeneratorManager;
+import org.bukkit.Chunk;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+
+public class ChunkListener implements Listener {
+    private final GeneratorManager generatorManager;
+    
+    public ChunkListener(GeneratorManager generatorManager) {
+        this.generatorManager = generatorManager;
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        Chunk chunk = event.getChunk();
+        generatorManager.onChunkLoad(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        Chunk chunk = event.getChunk();
+        generatorManager.onChunkUnload(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
+    }
+}
@@ -0,0 +1,54 @@
+package com.speedier.fracturegens.listeners;
+
+import com.speedier.fracturegens.managers.GeneratorManager;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+
+/**
+ * Drops cached output containers when a block next to a generator is placed
+ * or destroyed, so container-mode generators pick up new chests and stop
+ * feeding removed ones.
+ */
+public class ContainerListener implements Listener {
+    private final GeneratorManager generatorManager;
+    
+    public ContainerListener(GeneratorManager generatorManager) {
+        this.generatorManager = generatorManager;
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        generatorManager.onBlockChanged(event.getBlock());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        generatorManager.onBlockChanged(event.getBlock());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        generatorManager.onBlockChanged(event.getBlock());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            generatorManager.onBlockChanged(block);
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            generatorManager.onBlockChanged(block);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.speedier.fracturegens.FractureGens;
 import com.speedier.fracturegens.gui.GeneratorGUI;
 import com.speedier.fracturegens.gui.ItemSelectionGUI;
 import com.speedier.fracturegens.models.Generator;
+import com.speedier.fracturegens.models.LootTable;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.Sound;
@@ -15,8 +16,6 @@ import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
 import org.bukkit.inventory.ItemStack;
 
-import java.util.List;
-
 public class GUIListener implements Listener {
     private final FractureGens plugin;
     
@@ -64,7 +63,7 @@ public class GUIListener implements Listener {
         
         switch (slot) {
             case 4:
-                generator.setEnabled(!generator.isEnabled());
+                gui.getGeneratorManager().setEnabled(generator, !generator.isEnabled());
                 gui.updateInventory();
                 playSound(player, Sound.BLOCK_NOTE_BLOCK_PLING);
                 break;
@@ -72,7 +71,7 @@ public class GUIListener implements Listener {
             case 37:
                 int decreaseAmount = event.getClick() == ClickType.SHIFT_LEFT ? 1 : 10;
                 int newRate = Math.max(1, generator.getSpawnRate() - decreaseAmount);
-                generator.setSpawnRate(newRate);
+                gui.getGeneratorManager().setSpawnRate(generator, newRate);
                 gui.updateInventory();
                 playSound(player, Sound.UI_BUTTON_CLICK);
                 break;
@@ -81,7 +80,7 @@ public class GUIListener implements Listener {
                 int increaseAmount = event.getClick() == ClickType.SHIFT_LEFT ? 1 : 10;
                 int maxRate = plugin.getConfig().getInt("generators.max-spawn-rate", 300);
                 int newRateInc = Math.min(maxRate, generator.getSpawnRate() + increaseAmount);
-                generator.setSpawnRate(newRateInc);
+                gui.getGeneratorManager().setSpawnRate(generator, newRateInc);
                 gui.updateInventory();
                 playSound(player, Sound.UI_BUTTON_CLICK);
                 break;
@@ -90,7 +89,15 @@ public class GUIListener implements Listener {
                 Generator.SpawnDirection[] directions = Generator.SpawnDirection.values();
                 int currentIndex = generator.getDirection().ordinal();
                 int nextIndex = (currentIndex + 1) % directions.length;
-                generator.setDirection(directions[nextIndex]);
+                gui.getGeneratorManager().setDirection(generator, directions[nextIndex]);
+                gui.updateInventory();
+                playSound(player, Sound.BLOCK_NOTE_BLOCK_CHIME);
+                break;
+                
+            case 41:
+                Generator.OutputMode[] outputModes = Generator.OutputMode.values();
+                int nextMode = (generator.getOutputMode().ordinal() + 1) % outputModes.length;
+                gui.getGeneratorManager().setOutputMode(generator, outputModes[nextMode]);
                 gui.updateInventory();
                 playSound(player, Sound.BLOCK_NOTE_BLOCK_CHIME);
                 break;
@@ -114,14 +121,19 @@ public class GUIListener implements Listener {
             default:
                 if (slot >= 19 && slot <= 25) {
                     int itemIndex = slot - 19;
-                    List<ItemStack> items = generator.getItems();
+                    LootTable loot = generator.getLoot();
                     
-                    if (itemIndex < items.size()) {
+                    if (itemIndex < loot.size()) {
                         if (event.getClick() == ClickType.RIGHT) {
-                            items.remove(itemIndex);
-                            generator.setItems(items);
+                            gui.getGeneratorManager().setLoot(generator, loot.withoutEntry(itemIndex));
                             gui.updateInventory();
                             playSound(player, Sound.ENTITY_ITEM_BREAK);
+                        } else if (event.getClick() == ClickType.LEFT || event.getClick() == ClickType.SHIFT_LEFT) {
+                            int change = event.getClick() == ClickType.SHIFT_LEFT ? -1 : 1;
+                            int weight = Math.max(1, Math.min(LootTable.MAX_WEIGHT, loot.getWeight(itemIndex) + change));
+                            gui.getGeneratorManager().setLoot(generator, loot.withWeight(itemIndex, weight));
+                            gui.updateInventory();
+                            playSound(player, Sound.UI_BUTTON_CLICK);
                         }
                     } else if (clicked.getType() == Material.LIME_STAINED_GLASS_PANE) {
                         new ItemSelectionGUI(plugin, gui.getGeneratorManager(), generator, gui).open(player);
@@ -129,8 +141,6 @@ public class GUIListener implements Listener {
                 }
                 break;
         }
-        
-        gui.getGeneratorManager().saveGenerators();
     }
     
     private void handleItemSelectionGUIClick(InventoryClickEvent event, Player player) {
@@ -0,0 +1,46 @@
+package com.speedier.fracturegens.listeners;
+
+import com.speedier.fracturegens.managers.ItemLedger;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.entity.ItemDespawnEvent;
+import org.bukkit.event.entity.ItemMergeEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+
+public class GroundItemListener implements Listener {
+    private final ItemLedger itemLedger;
+    
+    public GroundItemListener(ItemLedger itemLedger) {
+        this.itemLedger = itemLedger;
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemDespawn(ItemDespawnEvent event) {
+        itemLedger.untrack(event.getEntity().getUniqueId());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemPickup(EntityPickupItemEvent event) {
+        if (event.getRemaining() == 0) {
+            itemLedger.untrack(event.getItem().getUniqueId());
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemMerge(ItemMergeEvent event) {
+        itemLedger.untrack(event.getEntity().getUniqueId());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        for (Entity entity : event.getEntities()) {
+            if (entity instanceof Item && itemLedger.isTracked(entity.getUniqueId())) {
+                itemLedger.rebind((Item) entity);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.speedier.fracturegens.listeners;
+
+import com.speedier.fracturegens.managers.GeneratorManager;
+import org.bukkit.Location;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+public class PlayerTrackingListener implements Listener {
+    private final GeneratorManager generatorManager;
+    
+    public PlayerTrackingListener(GeneratorManager generatorManager) {
+        this.generatorManager = generatorManager;
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        if (to == null || !crossesChunk(from, to)) {
+            return;
+        }
+        generatorManager.updatePlayerPosition(event.getPlayer().getUniqueId(), to);
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        Location to = event.getTo();
+        if (to != null && crossesChunk(event.getFrom(), to)) {
+            generatorManager.updatePlayerPosition(event.getPlayer().getUniqueId(), to);
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        generatorManager.updatePlayerPosition(event.getPlayer().getUniqueId(), event.getPlayer().getLocation());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerRespawn(PlayerRespawnEvent event) {
+        generatorManager.updatePlayerPosition(event.getPlayer().getUniqueId(), event.getRespawnLocation());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        generatorManager.updatePlayerPosition(event.getPlayer().getUniqueId(), event.getPlayer().getLocation());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        generatorManager.removePlayer(event.getPlayer().getUniqueId());
+    }
+    
+    private boolean crossesChunk(Location from, Location to) {
+        return (from.getBlockX() >> 4) != (to.getBlockX() >> 4) ||
+               (from.getBlockZ() >> 4) != (to.getBlockZ() >> 4) ||
+               from.getWorld() != to.getWorld();
+    }
+}
@@ -0,0 +1,26 @@
+package com.speedier.fracturegens.listeners;
+
+import com.speedier.fracturegens.managers.GeneratorManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+public class WorldListener implements Listener {
+    private final GeneratorManager generatorManager;
+    
+    public WorldListener(GeneratorManager generatorManager) {
+        this.generatorManager = generatorManager;
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent event) {
+        generatorManager.attachWorld(event.getWorld());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        generatorManager.detachWorld(event.getWorld());
+    }
+}
@@ -1,66 +1,168 @@
 package com.speedier.fracturegens.managers;
 
-import com.speedier.fracturegens.FractureGens;
+import com.speedier.fracturegens.metrics.GeneratorMetrics;
+import com.speedier.fracturegens.metrics.MetricsExporter;
+import com.speedier.fracturegens.metrics.SpawnProfiler;
 import com.speedier.fracturegens.models.Generator;
+import com.speedier.fracturegens.models.LootTable;
+import com.speedier.fracturegens.scheduler.SpawnBudget;
+import com.speedier.fracturegens.scheduler.SpawnGovernor;
+import com.speedier.fracturegens.scheduler.SpawnScheduler;
+import com.speedier.fracturegens.scheduler.TaskScheduler;
+import com.speedier.fracturegens.storage.GeneratorRecord;
+import com.speedier.fracturegens.storage.FileGeneratorStore;
+import com.speedier.fracturegens.storage.GeneratorStore;
+import com.speedier.fracturegens.storage.SaveScheduler;
+import com.speedier.fracturegens.storage.SqliteGeneratorStore;
+import com.speedier.fracturegens.utils.LocationKeys;
+import com.speedier.fracturegens.utils.LongObjectMap;
+import com.speedier.fracturegens.utils.PerformanceUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
-import org.bukkit.Material;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
 import org.bukkit.entity.Item;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.plugin.Plugin;
 import org.bukkit.util.Vector;
 
-import java.io.File;
-import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
 import java.util.stream.Collectors;
 
 public class GeneratorManager {
-    private final FractureGens plugin;
+    private final Plugin plugin;
     private final Map<UUID, Generator> generators;
-    private final Map<String, Set<UUID>> locationIndex;
+    private final Map<String, LongObjectMap<Generator>> locationIndex;
     private final Map<UUID, Set<UUID>> ownerIndex;
-    private File dataFile;
-    private BukkitRunnable generatorTask;
+    // Generators per owner in worlds that aren't loaded, so the per-player limit
+    // doesn't have to scan the detached records
+    private final Map<UUID, Integer> detachedOwnerCounts;
+    private final Map<String, LongObjectMap<Set<UUID>>> chunkIndex;
+    private final Set<UUID> activeGenerators;
+    private final SpawnScheduler spawnScheduler;
+    private final ItemLedger itemLedger;
+    private final OutputContainers outputContainers;
+    private volatile SpawnBudget lastSpawnBudget;
+    private final ArrayDeque<Generator> spawnBacklog;
+    private SpawnGovernor spawnGovernor;
+    private final GeneratorMetrics metrics;
+    private final MetricsExporter metricsExporter;
+    private final SpawnProfiler spawnProfiler;
+    private long minOutputInterval;
+    private int maxItemsPerTick;
+    private int worldItemsPerTick;
+    private int ownerItemsPerTick;
+    private int maxItemsPerGenerator;
+    private int maxStackSize;
+    private PlayerProximityTracker proximityTracker;
+    private double idleRateMultiplier;
+    private boolean catchUpEnabled;
+    private long catchUpMaxMillis;
+    private int catchUpMaxItems;
+    private double catchUpRateMultiplier;
+    private boolean trackGroundItems;
+    private boolean clearItemsOnRemove;
+    private final GeneratorStore storage;
+    private final SaveScheduler saveScheduler;
+    private final Map<String, Map<UUID, GeneratorRecord>> detachedRecords;
+    private CompletableFuture<Map<UUID, GeneratorRecord>> pendingLoad;
+    private volatile boolean loaded;
+    private volatile boolean loadFailed;
+    private final TaskScheduler taskScheduler;
+    // Guards the location and chunk index maps, which aren't thread-safe; on a
+    // region-threaded server generators are added and looked up from many threads
+    private final StampedLock indexLock;
+    private TaskScheduler.Task generatorTask;
     
-    public GeneratorManager(FractureGens plugin) {
+    public GeneratorManager(Plugin plugin, TaskScheduler taskScheduler) {
         this.plugin = plugin;
+        this.taskScheduler = taskScheduler;
+        this.indexLock = new StampedLock();
         this.generators = new ConcurrentHashMap<>();
         this.locationIndex = new ConcurrentHashMap<>();
         this.ownerIndex = new ConcurrentHashMap<>();
-        this.dataFile = new File(plugin.getDataFolder(), "generators.yml");
+        this.detachedOwnerCounts = new ConcurrentHashMap<>();
+        this.chunkIndex = new ConcurrentHashMap<>();
+        this.activeGenerators = ConcurrentHashMap.newKeySet();
+        this.spawnScheduler = new SpawnScheduler();
+        this.itemLedger = new ItemLedger(taskScheduler.isRegionThreaded());
+        this.outputContainers = new OutputContainers();
+        this.spawnBacklog = new ArrayDeque<>();
+        this.detachedRecords = new ConcurrentHashMap<>();
+        this.storage = createStore();
+        this.saveScheduler = new SaveScheduler(taskScheduler, storage, this::snapshotRecords);
+        this.metrics = new GeneratorMetrics();
+        this.metricsExporter = new MetricsExporter(plugin, taskScheduler, metrics);
+        this.spawnProfiler = new SpawnProfiler();
+        registerMetrics();
         
+        loadSettings();
+        setupProximityTracking();
         loadGenerators();
         startGeneratorTask();
+        metricsExporter.start();
+    }
+    
+    private void registerMetrics() {
+        metrics.registerGauge(GeneratorMetrics.GENERATORS, "Generators in loaded worlds", generators::size);
+        metrics.registerGauge(GeneratorMetrics.ACTIVE, "Generators in loaded chunks", activeGenerators::size);
+        metrics.registerGauge(GeneratorMetrics.DETACHED, "Generators in worlds that are not loaded",
+                this::getDetachedGeneratorCount);
+        metrics.registerGauge(GeneratorMetrics.SCHEDULED, "Generators queued in the spawn scheduler",
+                spawnScheduler::size);
+        metrics.registerGauge(GeneratorMetrics.BACKLOG, "Due generators carried over to the next cycle",
+                spawnBacklog::size);
+        metrics.registerGauge(GeneratorMetrics.LOCATION_INDEX, "Entries in the block location index",
+                () -> countIndexEntries(locationIndex));
+        metrics.registerGauge(GeneratorMetrics.CHUNK_INDEX, "Chunks in the chunk index",
+                () -> countIndexEntries(chunkIndex));
+        metrics.registerGauge(GeneratorMetrics.OWNER_INDEX, "Owners in the owner index", ownerIndex::size);
+        metrics.registerGauge(GeneratorMetrics.GROUND_ITEMS, "Dropped generator items being tracked",
+                itemLedger::getTrackedCount);
+        storage.setSaveListener(metrics::recordSave);
+    }
+    
+    private static long countIndexEntries(Map<String, ? extends LongObjectMap<?>> index) {
+        long entries = 0;
+        for (LongObjectMap<?> worldIndex : index.values()) {
+            entries += worldIndex.size();
+        }
+        return entries;
     }
     
     public boolean createGenerator(Location location, UUID owner) {
-        if (getGeneratorAt(location) != null) {
+        if (!loaded || getGeneratorAt(location) != null) {
             return false;
         }
         
         int maxPerPlayer = plugin.getConfig().getInt("performance.max-generators-per-player", 50);
-        if (getGeneratorsByOwner(owner).size() >= maxPerPlayer) {
+        if (getGeneratorsByOwner(owner).size() + detachedOwnerCounts.getOrDefault(owner, 0) >= maxPerPlayer) {
             return false;
         }
         
         int maxPerChunk = plugin.getConfig().getInt("performance.max-generators-per-chunk", 10);
-        if (getGeneratorsInChunk(location).size() >= maxPerChunk) {
+        if (countGeneratorsInChunk(location) >= maxPerChunk) {
             return false;
         }
         
         Generator generator = new Generator(location, owner);
         generators.put(generator.getId(), generator);
+        indexGenerator(generator);
+        if (generator.isValidLocation()) {
+            activeGenerators.add(generator.getId());
+            applyProximity(generator);
+        }
+        scheduleGenerator(generator);
         
-        String locationKey = getLocationKey(location);
-        locationIndex.computeIfAbsent(locationKey, k -> ConcurrentHashMap.newKeySet()).add(generator.getId());
-        ownerIndex.computeIfAbsent(owner, k -> ConcurrentHashMap.newKeySet()).add(generator.getId());
-        
-        saveGenerators();
+        storage.insert(GeneratorRecord.of(generator));
+        saveScheduler.markDirty();
         return true;
     }
     
@@ -70,35 +172,353 @@ public class GeneratorManager {
             return false;
         }
         
-        String locationKey = getLocationKey(generator.getLocation());
-        Set<UUID> locationGens = locationIndex.get(locationKey);
-        if (locationGens != null) {
-            locationGens.remove(generatorId);
-            if (locationGens.isEmpty()) {
-                locationIndex.remove(locationKey);
+        unindexGenerator(generator);
+        activeGenerators.remove(generatorId);
+        spawnScheduler.cancel(generatorId);
+        itemLedger.forgetGenerator(generator, clearItemsOnRemove);
+        outputContainers.invalidate(generator);
+        
+        storage.delete(generatorId);
+        saveScheduler.markDirty();
+        return true;
+    }
+    
+    public void setSpawnRate(Generator generator, int spawnRate) {
+        runAtGenerator(generator, () -> {
+            generator.setSpawnRate(spawnRate);
+            scheduleGenerator(generator);
+            storage.updateSpawnRate(generator.getId(), generator.getSpawnRate());
+            saveScheduler.markDirty();
+        });
+    }
+    
+    public void setEnabled(Generator generator, boolean enabled) {
+        runAtGenerator(generator, () -> {
+            generator.setEnabled(enabled);
+            scheduleGenerator(generator);
+            storage.updateEnabled(generator.getId(), enabled);
+            saveScheduler.markDirty();
+        });
+    }
+    
+    public void setDirection(Generator generator, Generator.SpawnDirection direction) {
+        generator.setDirection(direction);
+        storage.updateDirection(generator.getId(), direction);
+        saveScheduler.markDirty();
+    }
+    
+    public void setOutputMode(Generator generator, Generator.OutputMode outputMode) {
+        generator.setOutputMode(outputMode);
+        outputContainers.invalidate(generator);
+        storage.updateOutputMode(generator.getId(), outputMode);
+        saveScheduler.markDirty();
+    }
+    
+    public void setLoot(Generator generator, LootTable loot) {
+        generator.setLoot(loot);
+        storage.updateLoot(generator.getId(), loot);
+        saveScheduler.markDirty();
+    }
+    
+    // Rate changes accrue production first, so they run where the generator
+    // spawns; the change is stored from there too, so a snapshot taken before
+    // it ran can't cut it out of the journal
+    private void runAtGenerator(Generator generator, Runnable task) {
+        World world = Bukkit.getWorld(generator.getWorldName());
+        if (world == null) {
+            task.run();
+        } else {
+            taskScheduler.runAtChunk(world, generator.getChunkX(), generator.getChunkZ(), task);
+        }
+    }
+    
+    private void scheduleGenerator(Generator generator) {
+        if (generators.get(generator.getId()) != generator) {
+            return;
+        }
+        
+        if (generator.isEnabled() && generator.getRateMultiplier() > 0 &&
+            activeGenerators.contains(generator.getId())) {
+            spawnScheduler.schedule(generator, generator.getNextSpawnTime(minOutputInterval));
+        } else {
+            spawnScheduler.cancel(generator.getId());
+        }
+    }
+    
+    public void onChunkLoad(String worldName, int chunkX, int chunkZ) {
+        invalidateContainersNear(worldName, chunkX, chunkZ);
+        Set<UUID> chunkGens = getChunkBucket(worldName, chunkX, chunkZ);
+        if (chunkGens == null) {
+            return;
+        }
+        
+        long now = System.currentTimeMillis();
+        for (UUID id : chunkGens) {
+            Generator generator = generators.get(id);
+            if (generator != null && activeGenerators.add(id)) {
+                if (catchUpEnabled) {
+                    generator.catchUp(now, catchUpRateMultiplier, catchUpMaxMillis, catchUpMaxItems);
+                } else {
+                    generator.resumeProduction(now);
+                }
+                applyProximity(generator);
+                scheduleGenerator(generator);
+            }
+        }
+    }
+    
+    public void onChunkUnload(String worldName, int chunkX, int chunkZ) {
+        invalidateContainersNear(worldName, chunkX, chunkZ);
+        Set<UUID> chunkGens = getChunkBucket(worldName, chunkX, chunkZ);
+        if (chunkGens == null) {
+            return;
+        }
+        
+        long now = System.currentTimeMillis();
+        for (UUID id : chunkGens) {
+            if (activeGenerators.remove(id)) {
+                spawnScheduler.cancel(id);
+                Generator generator = generators.get(id);
+                if (generator != null) {
+                    generator.accrue(now);
+                }
+            }
+        }
+    }
+    
+    // A container can sit across a chunk border from its generator, so the
+    // generators of the four neighbouring chunks are dropped from the cache too
+    private void invalidateContainersNear(String worldName, int chunkX, int chunkZ) {
+        if (outputContainers.isEmpty()) {
+            return;
+        }
+        
+        invalidateContainers(getChunkBucket(worldName, chunkX, chunkZ));
+        invalidateContainers(getChunkBucket(worldName, chunkX - 1, chunkZ));
+        invalidateContainers(getChunkBucket(worldName, chunkX + 1, chunkZ));
+        invalidateContainers(getChunkBucket(worldName, chunkX, chunkZ - 1));
+        invalidateContainers(getChunkBucket(worldName, chunkX, chunkZ + 1));
+    }
+    
+    private void invalidateContainers(Set<UUID> chunkGens) {
+        if (chunkGens == null) {
+            return;
+        }
+        for (UUID id : chunkGens) {
+            Generator generator = generators.get(id);
+            if (generator != null) {
+                outputContainers.invalidate(generator);
+            }
+        }
+    }
+    
+    public void onBlockChanged(Block block) {
+        if (outputContainers.isEmpty()) {
+            return;
+        }
+        
+        long stamp = indexLock.readLock();
+        try {
+            LongObjectMap<Generator> worldGens = locationIndex.get(block.getWorld().getName());
+            if (worldGens == null) {
+                return;
+            }
+            
+            for (BlockFace face : OutputContainers.FACES) {
+                Generator generator = worldGens.get(LocationKeys.blockKey(
+                        block.getX() + face.getModX(), block.getY() + face.getModY(), block.getZ() + face.getModZ()));
+                if (generator != null) {
+                    outputContainers.invalidate(generator);
+                }
+            }
+        } finally {
+            indexLock.unlockRead(stamp);
+        }
+    }
+    
+    private void setupProximityTracking() {
+        int radius = plugin.getConfig().getInt("performance.activation.radius", 0);
+        String mode = plugin.getConfig().getString("performance.activation.inactive-mode", "PAUSE");
+        idleRateMultiplier = "THROTTLE".equalsIgnoreCase(mode)
+                ? plugin.getConfig().getDouble("performance.activation.throttle-multiplier", 0.25) : 0.0;
+        
+        if (radius <= 0) {
+            proximityTracker = null;
+        } else {
+            proximityTracker = new PlayerProximityTracker(radius, this::onProximityChanged);
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                updatePlayerPosition(player.getUniqueId(), player.getLocation());
+            }
+        }
+        
+        for (UUID id : activeGenerators) {
+            Generator generator = generators.get(id);
+            if (generator != null) {
+                runAtGenerator(generator, () -> {
+                    applyProximity(generator);
+                    scheduleGenerator(generator);
+                });
+            }
+        }
+    }
+    
+    public void updatePlayerPosition(UUID playerId, Location location) {
+        if (proximityTracker != null && location.getWorld() != null) {
+            proximityTracker.updatePlayer(playerId, location.getWorld().getName(),
+                    location.getBlockX() >> 4, location.getBlockZ() >> 4);
+        }
+    }
+    
+    public void removePlayer(UUID playerId) {
+        if (proximityTracker != null) {
+            proximityTracker.removePlayer(playerId);
+        }
+    }
+    
+    private void onProximityChanged(String worldName, int chunkX, int chunkZ, boolean nearPlayer) {
+        Set<UUID> chunkGens = getChunkBucket(worldName, chunkX, chunkZ);
+        if (chunkGens == null) {
+            return;
+        }
+        
+        for (UUID id : chunkGens) {
+            Generator generator = generators.get(id);
+            if (generator != null && activeGenerators.contains(id)) {
+                runAtGenerator(generator, () -> {
+                    applyProximity(generator);
+                    scheduleGenerator(generator);
+                });
+            }
+        }
+    }
+    
+    private void applyProximity(Generator generator) {
+        boolean nearPlayer = proximityTracker == null || proximityTracker.isNearPlayer(
+                generator.getWorldName(), generator.getChunkX(), generator.getChunkZ());
+        double multiplier = nearPlayer ? 1.0 : idleRateMultiplier;
+        if (generator.getRateMultiplier() != multiplier) {
+            generator.setRateMultiplier(multiplier);
+        }
+    }
+    
+    public int getIdleGeneratorCount() {
+        int idle = 0;
+        for (UUID id : activeGenerators) {
+            Generator generator = generators.get(id);
+            if (generator != null && generator.getRateMultiplier() < 1.0) {
+                idle++;
+            }
+        }
+        return idle;
+    }
+    
+    private void activateLoadedChunks(World world) {
+        List<Long> loadedChunks = new ArrayList<>();
+        long stamp = indexLock.readLock();
+        try {
+            LongObjectMap<Set<UUID>> worldChunks = chunkIndex.get(world.getName());
+            if (worldChunks == null) {
+                return;
+            }
+            
+            worldChunks.forEach((chunkKey, chunkGens) -> {
+                if (world.isChunkLoaded(LocationKeys.chunkX(chunkKey), LocationKeys.chunkZ(chunkKey))) {
+                    loadedChunks.add(chunkKey);
+                }
+            });
+        } finally {
+            indexLock.unlockRead(stamp);
+        }
+        for (long chunkKey : loadedChunks) {
+            onChunkLoad(world.getName(), LocationKeys.chunkX(chunkKey), LocationKeys.chunkZ(chunkKey));
+        }
+    }
+    
+    public int getActiveGeneratorCount() {
+        return activeGenerators.size();
+    }
+    
+    private void indexGenerator(Generator generator) {
+        long stamp = indexLock.writeLock();
+        try {
+            addToIndex(generator);
+        } finally {
+            indexLock.unlockWrite(stamp);
+        }
+    }
+    
+    private void addToIndex(Generator generator) {
+        UUID id = generator.getId();
+        locationIndex.computeIfAbsent(generator.getWorldName(), k -> new LongObjectMap<>())
+                .put(getBlockKey(generator), generator);
+        ownerIndex.computeIfAbsent(generator.getOwner(), k -> ConcurrentHashMap.newKeySet()).add(id);
+        
+        LongObjectMap<Set<UUID>> worldChunks = chunkIndex.computeIfAbsent(generator.getWorldName(), k -> new LongObjectMap<>());
+        long chunkKey = LocationKeys.chunkKey(generator.getChunkX(), generator.getChunkZ());
+        Set<UUID> chunkGens = worldChunks.get(chunkKey);
+        if (chunkGens == null) {
+            chunkGens = ConcurrentHashMap.newKeySet();
+            worldChunks.put(chunkKey, chunkGens);
+        }
+        chunkGens.add(id);
+    }
+    
+    private void unindexGenerator(Generator generator) {
+        long stamp = indexLock.writeLock();
+        try {
+            removeFromIndex(generator);
+        } finally {
+            indexLock.unlockWrite(stamp);
+        }
+    }
+    
+    private void removeFromIndex(Generator generator) {
+        UUID id = generator.getId();
+        
+        LongObjectMap<Generator> worldGens = locationIndex.get(generator.getWorldName());
+        if (worldGens != null) {
+            worldGens.remove(getBlockKey(generator));
+            if (worldGens.isEmpty()) {
+                locationIndex.remove(generator.getWorldName());
             }
         }
         
         Set<UUID> ownerGens = ownerIndex.get(generator.getOwner());
         if (ownerGens != null) {
-            ownerGens.remove(generatorId);
+            ownerGens.remove(id);
             if (ownerGens.isEmpty()) {
                 ownerIndex.remove(generator.getOwner());
             }
         }
         
-        saveGenerators();
-        return true;
+        LongObjectMap<Set<UUID>> worldChunks = chunkIndex.get(generator.getWorldName());
+        if (worldChunks != null) {
+            long chunkKey = LocationKeys.chunkKey(generator.getChunkX(), generator.getChunkZ());
+            Set<UUID> chunkGens = worldChunks.get(chunkKey);
+            if (chunkGens != null) {
+                chunkGens.remove(id);
+                if (chunkGens.isEmpty()) {
+                    worldChunks.remove(chunkKey);
+                }
+            }
+            if (worldChunks.isEmpty()) {
+                chunkIndex.remove(generator.getWorldName());
+            }
+        }
     }
     
     public Generator getGeneratorAt(Location location) {
-        String locationKey = getLocationKey(location);
-        Set<UUID> locationGens = locationIndex.get(locationKey);
-        if (locationGens == null || locationGens.isEmpty()) {
-            return null;
+        long stamp = indexLock.readLock();
+        try {
+            LongObjectMap<Generator> worldGens = locationIndex.get(location.getWorld().getName());
+            if (worldGens == null) {
+                return null;
+            }
+            
+            return worldGens.get(LocationKeys.blockKey(location.getBlockX(), location.getBlockY(), location.getBlockZ()));
+        } finally {
+            indexLock.unlockRead(stamp);
         }
-        
-        return generators.get(locationGens.iterator().next());
     }
     
     public List<Generator> getGeneratorsByOwner(UUID owner) {
@@ -114,17 +534,74 @@ public class GeneratorManager {
     }
     
     public List<Generator> getGeneratorsInChunk(Location location) {
-        int chunkX = location.getBlockX() >> 4;
-        int chunkZ = location.getBlockZ() >> 4;
-        
-        return generators.values().stream()
-                .filter(gen -> {
-                    Location genLoc = gen.getLocation();
-                    return genLoc.getWorld().equals(location.getWorld()) &&
-                           (genLoc.getBlockX() >> 4) == chunkX &&
-                           (genLoc.getBlockZ() >> 4) == chunkZ;
-                })
-                .collect(Collectors.toList());
+        return getGeneratorsInChunk(location.getWorld().getName(),
+                location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    }
+    
+    public List<Generator> getGeneratorsInChunk(String worldName, int chunkX, int chunkZ) {
+        Set<UUID> chunkGens = getChunkBucket(worldName, chunkX, chunkZ);
+        if (chunkGens == null) {
+            return new ArrayList<>();
+        }
+        
+        List<Generator> result = new ArrayList<>(chunkGens.size());
+        for (UUID id : chunkGens) {
+            Generator generator = generators.get(id);
+            if (generator != null) {
+                result.add(generator);
+            }
+        }
+        return result;
+    }
+    
+    public int countGeneratorsInChunk(Location location) {
+        Set<UUID> chunkGens = getChunkBucket(location.getWorld().getName(),
+                location.getBlockX() >> 4, location.getBlockZ() >> 4);
+        return chunkGens == null ? 0 : chunkGens.size();
+    }
+    
+    public List<Generator> getGeneratorsInArea(String worldName, int minChunkX, int minChunkZ,
+                                               int maxChunkX, int maxChunkZ) {
+        List<Generator> result = new ArrayList<>();
+        long stamp = indexLock.readLock();
+        try {
+            LongObjectMap<Set<UUID>> worldChunks = chunkIndex.get(worldName);
+            if (worldChunks == null) {
+                return result;
+            }
+            
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                    Set<UUID> chunkGens = worldChunks.get(LocationKeys.chunkKey(chunkX, chunkZ));
+                    if (chunkGens == null) {
+                        continue;
+                    }
+                    for (UUID id : chunkGens) {
+                        Generator generator = generators.get(id);
+                        if (generator != null) {
+                            result.add(generator);
+                        }
+                    }
+                }
+            }
+        } finally {
+            indexLock.unlockRead(stamp);
+        }
+        return result;
+    }
+    
+    // The bucket is a concurrent set, safe to iterate after the lock is released
+    private Set<UUID> getChunkBucket(String worldName, int chunkX, int chunkZ) {
+        long stamp = indexLock.readLock();
+        try {
+            LongObjectMap<Set<UUID>> worldChunks = chunkIndex.get(worldName);
+            if (worldChunks == null) {
+                return null;
+            }
+            return worldChunks.get(LocationKeys.chunkKey(chunkX, chunkZ));
+        } finally {
+            indexLock.unlockRead(stamp);
+        }
     }
     
     public Generator getGenerator(UUID id) {
@@ -135,190 +612,484 @@ public class GeneratorManager {
         return new ArrayList<>(generators.values());
     }
     
+    public int getGeneratorCount() {
+        return generators.size();
+    }
+    
+    public int getEnabledGeneratorCount() {
+        int enabled = 0;
+        for (Generator generator : generators.values()) {
+            if (generator.isEnabled()) {
+                enabled++;
+            }
+        }
+        return enabled;
+    }
+    
+    private void loadSettings() {
+        minOutputInterval = plugin.getConfig().getLong("generators.min-output-interval", 100) * 50L;
+        maxStackSize = plugin.getConfig().getInt("generators.max-stack-size", 64);
+        maxItemsPerTick = plugin.getConfig().getInt("performance.max-items-per-tick", 100);
+        worldItemsPerTick = plugin.getConfig().getInt("performance.per-world-items-per-tick", 0);
+        ownerItemsPerTick = plugin.getConfig().getInt("performance.per-owner-items-per-tick", 25);
+        maxItemsPerGenerator = new SpawnBudget(maxItemsPerTick, worldItemsPerTick, ownerItemsPerTick)
+                .getMaxPerGenerator();
+        catchUpEnabled = plugin.getConfig().getBoolean("generators.catch-up.enabled", false);
+        catchUpMaxMillis = plugin.getConfig().getLong("generators.catch-up.max-minutes", 60) * 60000L;
+        catchUpMaxItems = plugin.getConfig().getInt("generators.catch-up.max-items", 640);
+        catchUpRateMultiplier = Math.max(0.0, plugin.getConfig().getDouble("generators.catch-up.rate-multiplier", 1.0));
+        trackGroundItems = plugin.getConfig().getBoolean("generators.ground-items.track", true);
+        clearItemsOnRemove = plugin.getConfig().getBoolean("generators.ground-items.clear-on-remove", false);
+        itemLedger.setLimits(
+                plugin.getConfig().getInt("generators.ground-items.max-per-generator", 8),
+                plugin.getConfig().getInt("generators.ground-items.max-per-chunk", 32));
+        spawnGovernor = plugin.getConfig().getBoolean("performance.time-budget.enabled", true)
+                ? new SpawnGovernor(
+                        plugin.getConfig().getDouble("performance.time-budget.max-millis", 5.0),
+                        plugin.getConfig().getDouble("performance.time-budget.min-millis", 0.5),
+                        plugin.getConfig().getDouble("performance.time-budget.shrink-above", 45.0),
+                        plugin.getConfig().getDouble("performance.time-budget.recover-below", 40.0),
+                        plugin.getConfig().getInt("performance.time-budget.recover-cycles", 3))
+                : SpawnGovernor.unlimited();
+        if (storage instanceof FileGeneratorStore fileStore) {
+            fileStore.setMaxBackups(plugin.getConfig().getBoolean("storage.enable-backups", true)
+                    ? plugin.getConfig().getInt("storage.max-backups", 5) : 0);
+        }
+    }
+    
     private void startGeneratorTask() {
         int interval = plugin.getConfig().getInt("performance.generator-tick-interval", 20);
         boolean asyncProcessing = plugin.getConfig().getBoolean("performance.async-processing", true);
         
-        generatorTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (asyncProcessing) {
-                    processGeneratorsAsync();
-                } else {
-                    processGenerators();
-                }
+        generatorTask = taskScheduler.runTimer(() -> {
+            spawnGovernor.update(PerformanceUtils.getAverageTickTime());
+            // Generators left over from a cycle that ran out of time go first;
+            // nothing new is polled until they are done
+            if (!spawnBacklog.isEmpty()) {
+                drainSpawnBacklog(System.currentTimeMillis());
+            } else if (asyncProcessing) {
+                processGeneratorsAsync();
+            } else {
+                processGenerators(System.currentTimeMillis());
             }
-        };
-        
-        generatorTask.runTaskTimer(plugin, interval, interval);
+        }, interval, interval);
     }
     
-    private void processGenerators() {
-        int maxItemsPerTick = plugin.getConfig().getInt("performance.max-items-per-tick", 100);
-        int itemsSpawned = 0;
-        
-        for (Generator generator : generators.values()) {
-            if (itemsSpawned >= maxItemsPerTick) {
-                break;
-            }
-            
-            if (generator.shouldSpawn() && generator.isValidLocation()) {
-                spawnItem(generator);
-                generator.updateLastSpawn();
-                itemsSpawned++;
-            }
-        }
+    private void processGenerators(long now) {
+        spawnBacklog.addAll(pollDueGenerators(now));
+        drainSpawnBacklog(now);
     }
     
     private void processGeneratorsAsync() {
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            List<Generator> readyGenerators = generators.values().stream()
-                    .filter(gen -> gen.shouldSpawn() && gen.isValidLocation())
-                    .limit(plugin.getConfig().getInt("performance.max-items-per-tick", 100))
-                    .collect(Collectors.toList());
+        taskScheduler.runAsync(() -> {
+            long now = System.currentTimeMillis();
+            List<Generator> readyGenerators = pollDueGenerators(now);
             
             if (!readyGenerators.isEmpty()) {
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    for (Generator generator : readyGenerators) {
-                        spawnItem(generator);
-                        generator.updateLastSpawn();
-                    }
+                taskScheduler.run(() -> {
+                    spawnBacklog.addAll(readyGenerators);
+                    drainSpawnBacklog(System.currentTimeMillis());
                 });
             }
         });
     }
     
-    private void spawnItem(Generator generator) {
+    private List<Generator> pollDueGenerators(long now) {
+        SpawnBudget budget = new SpawnBudget(maxItemsPerTick, worldItemsPerTick, ownerItemsPerTick);
+        long start = System.nanoTime();
+        // A blocked generator only checks whether its items were picked up, so
+        // it costs nothing
+        List<Generator> due = spawnScheduler.pollDue(now, budget, generator -> generator.isOutputBlocked()
+                ? 0 : Math.min(generator.peekOutput(now), maxItemsPerGenerator));
+        metrics.recordScan(System.nanoTime() - start, Bukkit.isPrimaryThread());
+        metrics.recordSkippedOverBudget(budget.getWaiting());
+        lastSpawnBudget = budget;
+        return due;
+    }
+    
+    public SpawnBudget getLastSpawnBudget() {
+        return lastSpawnBudget;
+    }
+    
+    // Spawns until the governor's time budget runs out; always at least one
+    // generator, so the backlog drains even at the minimum budget
+    private void drainSpawnBacklog(long now) {
+        if (taskScheduler.isRegionThreaded()) {
+            dispatchSpawnBacklog(now);
+            return;
+        }
+        
+        long start = System.nanoTime();
+        boolean exhausted = false;
+        int processed = 0;
+        int items = 0;
+        
+        Generator generator;
+        while ((generator = spawnBacklog.pollFirst()) != null) {
+            items += processDueGenerator(generator, now);
+            processed++;
+            if (!spawnBacklog.isEmpty() && spawnGovernor.isExhausted(start)) {
+                exhausted = true;
+                metrics.recordSkippedOverBudget(spawnBacklog.size());
+                break;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        spawnGovernor.recordCycle(elapsed, exhausted);
+        metrics.recordSpawnCycle(elapsed, processed, items);
+    }
+    
+    // Region-threaded servers: due generators are batched by chunk and each batch
+    // runs on the thread of the region that owns it. Those threads tick on their
+    // own, so the governor's time budget doesn't apply; the per-tick item
+    // budget already capped what was polled.
+    private void dispatchSpawnBacklog(long now) {
+        Map<String, LongObjectMap<List<Generator>>> batches = new HashMap<>();
+        Generator generator;
+        while ((generator = spawnBacklog.pollFirst()) != null) {
+            LongObjectMap<List<Generator>> worldBatches =
+                    batches.computeIfAbsent(generator.getWorldName(), k -> new LongObjectMap<>());
+            long chunkKey = LocationKeys.chunkKey(generator.getChunkX(), generator.getChunkZ());
+            List<Generator> batch = worldBatches.get(chunkKey);
+            if (batch == null) {
+                batch = new ArrayList<>();
+                worldBatches.put(chunkKey, batch);
+            }
+            batch.add(generator);
+        }
+        
+        for (Map.Entry<String, LongObjectMap<List<Generator>>> entry : batches.entrySet()) {
+            World world = Bukkit.getWorld(entry.getKey());
+            if (world == null) {
+                continue;
+            }
+            entry.getValue().forEach((chunkKey, batch) -> taskScheduler.runAtChunk(world,
+                    LocationKeys.chunkX(chunkKey), LocationKeys.chunkZ(chunkKey), () -> processSpawnBatch(batch, now)));
+        }
+    }
+    
+    // Cycle metrics count each batch as a cycle
+    private void processSpawnBatch(List<Generator> batch, long now) {
+        long start = System.nanoTime();
+        int items = 0;
+        for (Generator generator : batch) {
+            items += processDueGenerator(generator, now);
+        }
+        metrics.recordSpawnCycle(System.nanoTime() - start, batch.size(), items);
+    }
+    
+    public TaskScheduler getTaskScheduler() {
+        return taskScheduler;
+    }
+    
+    public GeneratorMetrics getMetrics() {
+        return metrics;
+    }
+    
+    public SpawnProfiler getSpawnProfiler() {
+        return spawnProfiler;
+    }
+    
+    public SpawnGovernor getSpawnGovernor() {
+        return spawnGovernor;
+    }
+    
+    public int getSpawnBacklogSize() {
+        return spawnBacklog.size();
+    }
+    
+    // Returns the number of items delivered
+    private int processDueGenerator(Generator generator, long now) {
+        if (generators.get(generator.getId()) != generator) {
+            return 0;
+        }
+        if (!activeGenerators.contains(generator.getId())) {
+            metrics.recordSkippedUnloaded();
+            return 0;
+        }
+        if (!generator.isEnabled()) {
+            metrics.recordSkippedDisabled();
+            return 0;
+        }
+        
+        if (generator.isOutputBlocked()) {
+            if (trackGroundItems && itemLedger.isAtCap(generator)) {
+                spawnScheduler.schedule(generator, now + minOutputInterval);
+                return 0;
+            }
+            generator.setOutputBlocked(false, now);
+        }
+        
+        int amount = generator.takeOutput(now, maxItemsPerGenerator);
+        int delivered = 0;
+        if (amount > 0) {
+            if (spawnProfiler.isActive()) {
+                long start = System.nanoTime();
+                delivered = spawnOutput(generator, amount);
+                spawnProfiler.record(generator, delivered, System.nanoTime() - start);
+            } else {
+                delivered = spawnOutput(generator, amount);
+            }
+            if (delivered < amount) {
+                // At the ground-item cap: keep the rest and stop producing until it clears
+                generator.returnOutput(amount - delivered);
+                generator.setOutputBlocked(true, now);
+            }
+        }
+        spawnScheduler.schedule(generator, generator.isOutputBlocked()
+                ? now + minOutputInterval : generator.getNextSpawnTime(minOutputInterval));
+        return delivered;
+    }
+    
+    // Returns the number of items delivered
+    private int spawnOutput(Generator generator, int amount) {
+        List<ItemStack> output = generator.createOutput(amount, maxStackSize);
+        if (generator.getOutputMode() == Generator.OutputMode.CONTAINER) {
+            Inventory container = outputContainers.getInventory(generator);
+            if (container != null) {
+                // One insert for the whole cycle; only what doesn't fit is dropped
+                Map<Integer, ItemStack> leftover = container.addItem(output.toArray(new ItemStack[0]));
+                if (leftover.isEmpty()) {
+                    return amount;
+                }
+                output = new ArrayList<>(leftover.values());
+            }
+        }
+        
+        return amount - dropOutput(generator, output);
+    }
+    
+    // Returns the number of items that couldn't be dropped
+    private int dropOutput(Generator generator, List<ItemStack> output) {
+        int undelivered = 0;
         Location spawnLoc = generator.getSpawnLocation();
-        ItemStack item = generator.getRandomItem();
+        if (spawnLoc.getWorld() == null) {
+            for (ItemStack stack : output) {
+                undelivered += stack.getAmount();
+            }
+            return undelivered;
+        }
         
-        if (spawnLoc.getWorld() != null) {
-            Item droppedItem = spawnLoc.getWorld().dropItem(spawnLoc, item);
+        for (ItemStack stack : output) {
+            if (trackGroundItems && itemLedger.isAtCap(generator)) {
+                undelivered += itemLedger.topUp(generator, stack);
+                continue;
+            }
+            
+            Item droppedItem = spawnLoc.getWorld().dropItem(spawnLoc, stack);
             droppedItem.setVelocity(new Vector(0, 0.1, 0));
             droppedItem.setPickupDelay(20);
+            if (trackGroundItems) {
+                itemLedger.track(generator, droppedItem);
+            }
         }
+        return undelivered;
+    }
+    
+    public ItemLedger getItemLedger() {
+        return itemLedger;
     }
     
-    private String getLocationKey(Location location) {
-        return location.getWorld().getName() + ":" + 
-               location.getBlockX() + ":" + 
-               location.getBlockY() + ":" + 
-               location.getBlockZ();
+    private static long getBlockKey(Generator generator) {
+        return LocationKeys.blockKey(generator.getBlockX(), generator.getBlockY(), generator.getBlockZ());
     }
     
     public void saveGenerators() {
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            try {
-                FileConfiguration config = new YamlConfiguration();
-                
-                for (Generator generator : generators.values()) {
-                    String path = "generators." + generator.getId().toString();
-                    config.set(path + ".location.world", generator.getLocation().getWorld().getName());
-                    config.set(path + ".location.x", generator.getLocation().getBlockX());
-                    config.set(path + ".location.y", generator.getLocation().getBlockY());
-                    config.set(path + ".location.z", generator.getLocation().getBlockZ());
-                    config.set(path + ".owner", generator.getOwner().toString());
-                    config.set(path + ".spawn-rate", generator.getSpawnRate());
-                    config.set(path + ".direction", generator.getDirection().name());
-                    config.set(path + ".enabled", generator.isEnabled());
-                    
-                    List<Map<String, Object>> itemMaps = new ArrayList<>();
-                    for (ItemStack item : generator.getItems()) {
-                        itemMaps.add(item.serialize());
-                    }
-                    config.set(path + ".items", itemMaps);
-                }
-                
-                config.save(dataFile);
-            } catch (IOException e) {
-                plugin.getLogger().severe("Failed to save generators: " + e.getMessage());
+        saveScheduler.requestSave();
+    }
+    
+    private GeneratorStore createStore() {
+        FileGeneratorStore fileStore = new FileGeneratorStore(plugin.getDataFolder(), plugin.getLogger(),
+                plugin.getConfig().getInt("storage.journal.compact-after", 1000),
+                "BINARY".equalsIgnoreCase(plugin.getConfig().getString("storage.format", "YAML")));
+        
+        if ("SQLITE".equalsIgnoreCase(plugin.getConfig().getString("storage.type", "FILE"))) {
+            if (SqliteGeneratorStore.isDriverAvailable()) {
+                return new SqliteGeneratorStore(plugin.getDataFolder(), plugin.getLogger(), fileStore);
             }
-        });
+            plugin.getLogger().warning("SQLite driver not found, falling back to file storage");
+        }
+        return fileStore;
+    }
+    
+    public GeneratorStore getStorage() {
+        return storage;
+    }
+    
+    public SaveScheduler getSaveScheduler() {
+        return saveScheduler;
+    }
+    
+    // Null when nothing may be written because the stored data couldn't be read
+    private List<GeneratorRecord> snapshotRecords() {
+        if (!loaded) {
+            // Shutting down before the initial load finished: write back what was read.
+            Map<UUID, GeneratorRecord> records = awaitLoad();
+            return records == null ? null : new ArrayList<>(records.values());
+        }
+        
+        List<GeneratorRecord> records = new ArrayList<>(generators.size());
+        long now = System.currentTimeMillis();
+        for (Generator generator : generators.values()) {
+            records.add(activeGenerators.contains(generator.getId())
+                    ? GeneratorRecord.of(generator, now) : GeneratorRecord.of(generator));
+        }
+        for (Map<UUID, GeneratorRecord> worldRecords : detachedRecords.values()) {
+            records.addAll(worldRecords.values());
+        }
+        return records;
     }
     
     private void loadGenerators() {
-        if (!dataFile.exists()) {
+        long start = System.nanoTime();
+        pendingLoad = CompletableFuture.supplyAsync(storage::load);
+        pendingLoad.whenComplete((records, error) -> {
+            if (plugin.isEnabled()) {
+                taskScheduler.run(() -> finishLoading(start));
+            }
+        });
+    }
+    
+    // Null when the load failed
+    private Map<UUID, GeneratorRecord> awaitLoad() {
+        try {
+            return pendingLoad.join();
+        } catch (CompletionException e) {
+            if (!loadFailed) {
+                loadFailed = true;
+                plugin.getLogger().severe("Failed to load generators: " + e.getCause().getMessage());
+                plugin.getLogger().severe("Generators stay disabled and nothing is saved, so the stored data is " +
+                        "left as it is. Fix or restore it and restart the server.");
+            }
+            return null;
+        }
+    }
+    
+    private void finishLoading(long start) {
+        if (loaded) {
+            return;
+        }
+        
+        Map<UUID, GeneratorRecord> records = awaitLoad();
+        if (records == null) {
+            return;
+        }
+        for (GeneratorRecord record : records.values()) {
+            detachedRecords.computeIfAbsent(record.getWorldName(), k -> new LinkedHashMap<>())
+                    .put(record.getId(), record);
+            adjustDetachedCount(record.getOwner(), 1);
+        }
+        loaded = true;
+        
+        for (World world : Bukkit.getWorlds()) {
+            attachWorld(world);
+        }
+        
+        metrics.recordLoad(System.nanoTime() - start);
+        plugin.getLogger().info("Loaded " + records.size() + " generators in " +
+                (System.nanoTime() - start) / 1_000_000 + "ms (" + getDetachedGeneratorCount() +
+                " waiting for their world to load)");
+        
+        saveScheduler.start(plugin.getConfig().getLong("storage.auto-save-interval", 5));
+        if (storage.isMigrating()) {
+            saveScheduler.requestSave();
+        }
+    }
+    
+    public void attachWorld(World world) {
+        if (!loaded) {
             return;
         }
         
+        Map<UUID, GeneratorRecord> records = detachedRecords.remove(world.getName());
+        if (records == null) {
+            return;
+        }
+        
+        for (GeneratorRecord record : records.values()) {
+            Generator generator = record.toGenerator(world);
+            generators.put(generator.getId(), generator);
+            indexGenerator(generator);
+            adjustDetachedCount(record.getOwner(), -1);
+        }
+        activateLoadedChunks(world);
+    }
+    
+    public void detachWorld(World world) {
+        List<UUID> worldGens = new ArrayList<>();
+        long stamp = indexLock.readLock();
         try {
-            FileConfiguration config = YamlConfiguration.loadConfiguration(dataFile);
-            ConfigurationSection generatorsSection = config.getConfigurationSection("generators");
-            
-            if (generatorsSection == null) {
+            LongObjectMap<Set<UUID>> worldChunks = chunkIndex.get(world.getName());
+            if (worldChunks == null) {
                 return;
             }
-            
-            for (String idString : generatorsSection.getKeys(false)) {
-                try {
-                    UUID id = UUID.fromString(idString);
-                    ConfigurationSection genSection = generatorsSection.getConfigurationSection(idString);
-                    
-                    String worldName = genSection.getString("location.world");
-                    int x = genSection.getInt("location.x");
-                    int y = genSection.getInt("location.y");
-                    int z = genSection.getInt("location.z");
-                    
-                    Location location = new Location(Bukkit.getWorld(worldName), x, y, z);
-                    if (location.getWorld() == null) {
-                        continue;
-                    }
-                    
-                    UUID owner = UUID.fromString(genSection.getString("owner"));
-                    int spawnRate = genSection.getInt("spawn-rate", 60);
-                    Generator.SpawnDirection direction = Generator.SpawnDirection.valueOf(
-                            genSection.getString("direction", "TOP"));
-                    boolean enabled = genSection.getBoolean("enabled", true);
-                    
-                    List<ItemStack> items = new ArrayList<>();
-                    List<?> itemMaps = genSection.getList("items");
-                    if (itemMaps != null) {
-                        for (Object itemMap : itemMaps) {
-                            if (itemMap instanceof Map) {
-                                try {
-                                    ItemStack item = ItemStack.deserialize((Map<String, Object>) itemMap);
-                                    items.add(item);
-                                } catch (Exception e) {
-                                    plugin.getLogger().warning("Failed to deserialize item: " + e.getMessage());
-                                }
-                            }
-                        }
-                    }
-                    
-                    if (items.isEmpty()) {
-                        items.add(new ItemStack(Material.COBBLESTONE, 1));
-                    }
-                    
-                    Generator generator = new Generator(id, location, owner, items, spawnRate, direction, enabled);
-                    generators.put(id, generator);
-                    
-                    String locationKey = getLocationKey(location);
-                    locationIndex.computeIfAbsent(locationKey, k -> ConcurrentHashMap.newKeySet()).add(id);
-                    ownerIndex.computeIfAbsent(owner, k -> ConcurrentHashMap.newKeySet()).add(id);
-                    
-                } catch (Exception e) {
-                    plugin.getLogger().warning("Failed to load generator " + idString + ": " + e.getMessage());
-                }
+            worldChunks.forEachValue(worldGens::addAll);
+        } finally {
+            indexLock.unlockRead(stamp);
+        }
+        
+        Map<UUID, GeneratorRecord> records = new LinkedHashMap<>();
+        long now = System.currentTimeMillis();
+        for (UUID id : worldGens) {
+            Generator generator = generators.remove(id);
+            if (generator == null) {
+                continue;
             }
             
-            plugin.getLogger().info("Loaded " + generators.size() + " generators");
-            
-        } catch (Exception e) {
-            plugin.getLogger().severe("Failed to load generators: " + e.getMessage());
+            if (activeGenerators.remove(id)) {
+                spawnScheduler.cancel(id);
+                generator.accrue(now);
+            }
+            unindexGenerator(generator);
+            itemLedger.forgetGenerator(generator, false);
+            outputContainers.invalidate(generator);
+            records.put(id, GeneratorRecord.of(generator));
+            adjustDetachedCount(generator.getOwner(), 1);
         }
+        detachedRecords.put(world.getName(), records);
+    }
+    
+    private void adjustDetachedCount(UUID owner, int delta) {
+        detachedOwnerCounts.compute(owner, (k, count) -> {
+            int updated = (count == null ? 0 : count) + delta;
+            return updated > 0 ? updated : null;
+        });
+    }
+    
+    public int getDetachedGeneratorCount() {
+        int count = 0;
+        for (Map<UUID, GeneratorRecord> worldRecords : detachedRecords.values()) {
+            count += worldRecords.size();
+        }
+        return count;
+    }
+    
+    public boolean isLoaded() {
+        return loaded;
+    }
+    
+    public boolean isLoadFailed() {
+        return loadFailed;
     }
     
     public void shutdown() {
         if (generatorTask != null) {
             generatorTask.cancel();
         }
-        saveGenerators();
+        metricsExporter.stop();
+        saveScheduler.shutdown();
     }
     
     public void reload() {
         if (generatorTask != null) {
             generatorTask.cancel();
         }
+        loadSettings();
+        setupProximityTracking();
         startGeneratorTask();
+        metricsExporter.start();
+        if (loaded) {
+            saveScheduler.start(plugin.getConfig().getLong("storage.auto-save-interval", 5));
+        }
     }
 }
@@ -0,0 +1,242 @@
+package com.speedier.fracturegens.managers;
+
+import com.speedier.fracturegens.models.Generator;
+import com.speedier.fracturegens.utils.LocationKeys;
+import com.speedier.fracturegens.utils.LongObjectMap;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Item;
+import org.bukkit.inventory.ItemStack;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Tracks the item entities each generator has dropped so their number can be
+ * capped per generator and per chunk. Entities are held weakly and keyed by
+ * UUID, so entries survive their chunk unloading and are rebound when the
+ * entities load again. Synchronized: on region-threaded servers every region
+ * spawns and picks up items on its own thread. There an entity may only be
+ * looked up by its own region, so unloaded items are left to the load event
+ * to rebind instead of being looked up by UUID; one that doesn't come back
+ * within an item's despawn time is forgotten.
+ */
+public class ItemLedger {
+    private static final long LOST_ITEM_EXPIRY_MILLIS = 5 * 60 * 1000L;
+
+    private final boolean regionThreaded;
+    private final Map<UUID, List<TrackedItem>> itemsByGenerator = new HashMap<>();
+    private final Map<UUID, TrackedItem> itemsByEntity = new HashMap<>();
+    private final Map<String, LongObjectMap<int[]>> chunkCounts = new HashMap<>();
+    private int maxPerGenerator;
+    private int maxPerChunk;
+    private long heldBackItems;
+
+    private static final class TrackedItem {
+        private final UUID entityId;
+        private final Generator generator;
+        private WeakReference<Item> entity;
+        // When the entity was first found unloaded, 0 while it's loaded
+        private long lostSince;
+
+        private TrackedItem(Item entity, Generator generator) {
+            this.entityId = entity.getUniqueId();
+            this.generator = generator;
+            this.entity = new WeakReference<>(entity);
+        }
+
+        private Item getLoadedEntity() {
+            Item item = entity.get();
+            return item != null && item.isValid() ? item : null;
+        }
+
+        private boolean isGone(boolean lookUp, long now) {
+            Item item = entity.get();
+            if (item == null) {
+                if (!lookUp) {
+                    if (lostSince == 0) {
+                        lostSince = now;
+                    }
+                    return now - lostSince > LOST_ITEM_EXPIRY_MILLIS;
+                }
+                if (Bukkit.getEntity(entityId) instanceof Item reloaded) {
+                    entity = new WeakReference<>(reloaded);
+                    item = reloaded;
+                }
+            }
+            return item == null || item.isDead();
+        }
+    }
+
+    public ItemLedger(boolean regionThreaded) {
+        this.regionThreaded = regionThreaded;
+    }
+
+    public synchronized void setLimits(int maxPerGenerator, int maxPerChunk) {
+        this.maxPerGenerator = maxPerGenerator;
+        this.maxPerChunk = maxPerChunk;
+    }
+
+    public synchronized boolean isAtCap(Generator generator) {
+        if (maxPerGenerator > 0 && prune(generator) >= maxPerGenerator) {
+            return true;
+        }
+        return maxPerChunk > 0 && getChunkCount(generator) >= maxPerChunk;
+    }
+
+    public synchronized void track(Generator generator, Item entity) {
+        TrackedItem tracked = new TrackedItem(entity, generator);
+        itemsByGenerator.computeIfAbsent(generator.getId(), k -> new ArrayList<>()).add(tracked);
+        itemsByEntity.put(tracked.entityId, tracked);
+        adjustChunkCount(generator, 1);
+    }
+
+    // Returns what didn't fit; the caller hands it back to the generator
+    public synchronized int topUp(Generator generator, ItemStack stack) {
+        int remaining = stack.getAmount();
+        List<TrackedItem> tracked = itemsByGenerator.get(generator.getId());
+        if (tracked != null) {
+            for (TrackedItem trackedItem : tracked) {
+                Item entity = trackedItem.getLoadedEntity();
+                if (entity == null) {
+                    continue;
+                }
+
+                ItemStack existing = entity.getItemStack();
+                int room = existing.getMaxStackSize() - existing.getAmount();
+                if (room <= 0 || !existing.isSimilar(stack)) {
+                    continue;
+                }
+
+                int added = Math.min(room, remaining);
+                existing.setAmount(existing.getAmount() + added);
+                entity.setItemStack(existing);
+                remaining -= added;
+                if (remaining == 0) {
+                    break;
+                }
+            }
+        }
+
+        heldBackItems += remaining;
+        return remaining;
+    }
+
+    public synchronized void untrack(UUID entityId) {
+        TrackedItem tracked = itemsByEntity.remove(entityId);
+        if (tracked == null) {
+            return;
+        }
+
+        List<TrackedItem> generatorItems = itemsByGenerator.get(tracked.generator.getId());
+        if (generatorItems != null) {
+            generatorItems.remove(tracked);
+            if (generatorItems.isEmpty()) {
+                itemsByGenerator.remove(tracked.generator.getId());
+            }
+        }
+        adjustChunkCount(tracked.generator, -1);
+    }
+
+    public synchronized void rebind(Item entity) {
+        TrackedItem tracked = itemsByEntity.get(entity.getUniqueId());
+        if (tracked != null) {
+            tracked.entity = new WeakReference<>(entity);
+            tracked.lostSince = 0;
+        }
+    }
+
+    public synchronized boolean isTracked(UUID entityId) {
+        return itemsByEntity.containsKey(entityId);
+    }
+
+    public synchronized void forgetGenerator(Generator generator, boolean removeEntities) {
+        List<TrackedItem> tracked = itemsByGenerator.remove(generator.getId());
+        if (tracked == null) {
+            return;
+        }
+
+        for (TrackedItem trackedItem : tracked) {
+            itemsByEntity.remove(trackedItem.entityId);
+            if (removeEntities) {
+                Item entity = trackedItem.getLoadedEntity();
+                if (entity != null) {
+                    entity.remove();
+                }
+            }
+        }
+        adjustChunkCount(generator, -tracked.size());
+    }
+
+    private int prune(Generator generator) {
+        List<TrackedItem> tracked = itemsByGenerator.get(generator.getId());
+        if (tracked == null) {
+            return 0;
+        }
+
+        long now = System.currentTimeMillis();
+        Iterator<TrackedItem> iterator = tracked.iterator();
+        while (iterator.hasNext()) {
+            TrackedItem trackedItem = iterator.next();
+            if (trackedItem.isGone(!regionThreaded, now)) {
+                iterator.remove();
+                itemsByEntity.remove(trackedItem.entityId);
+                adjustChunkCount(generator, -1);
+            }
+        }
+        if (tracked.isEmpty()) {
+            itemsByGenerator.remove(generator.getId());
+        }
+        return tracked.size();
+    }
+
+    private int getChunkCount(Generator generator) {
+        LongObjectMap<int[]> worldCounts = chunkCounts.get(generator.getWorldName());
+        if (worldCounts == null) {
+            return 0;
+        }
+        int[] count = worldCounts.get(LocationKeys.chunkKey(generator.getChunkX(), generator.getChunkZ()));
+        return count == null ? 0 : count[0];
+    }
+
+    private void adjustChunkCount(Generator generator, int delta) {
+        LongObjectMap<int[]> worldCounts = chunkCounts.get(generator.getWorldName());
+        if (worldCounts == null) {
+            if (delta <= 0) {
+                return;
+            }
+            worldCounts = new LongObjectMap<>();
+            chunkCounts.put(generator.getWorldName(), worldCounts);
+        }
+
+        long chunkKey = LocationKeys.chunkKey(generator.getChunkX(), generator.getChunkZ());
+        int[] count = worldCounts.get(chunkKey);
+        if (count == null) {
+            if (delta <= 0) {
+                return;
+            }
+            count = new int[1];
+            worldCounts.put(chunkKey, count);
+        }
+
+        count[0] += delta;
+        if (count[0] <= 0) {
+            worldCounts.remove(chunkKey);
+            if (worldCounts.isEmpty()) {
+                chunkCounts.remove(generator.getWorldName());
+            }
+        }
+    }
+
+    public synchronized int getTrackedCount() {
+        return itemsByEntity.size();
+    }
+
+    public synchronized long getHeldBackItems() {
+        return heldBackItems;
+    }
+}
@@ -0,0 +1,103 @@
+package com.speedier.fracturegens.managers;
+
+import com.speedier.fracturegens.models.Generator;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.Container;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds and caches the container a {@link Generator.OutputMode#CONTAINER}
+ * generator feeds: the first storage container next to it, looking below
+ * first (where a hopper would sit), then the sides, then above. Hits and
+ * misses are both cached until a block next to the generator changes or a
+ * chunk around it loads or unloads, so a cycle costs a map lookup and a type check
+ * instead of a block state snapshot per side. A generator is only looked up
+ * on the thread that owns its chunk; invalidation may come from any thread.
+ */
+public class OutputContainers {
+    static final BlockFace[] FACES = {
+            BlockFace.DOWN, BlockFace.NORTH, BlockFace.EAST, BlockFace.SOUTH, BlockFace.WEST, BlockFace.UP
+    };
+    // Furnaces, brewing stands and the like would take the output into their fuel and input slots
+    private static final Set<InventoryType> STORAGE_TYPES = EnumSet.of(InventoryType.CHEST, InventoryType.BARREL,
+            InventoryType.HOPPER, InventoryType.SHULKER_BOX, InventoryType.DISPENSER, InventoryType.DROPPER);
+    private static final Target NONE = new Target(null, null);
+
+    private final Map<UUID, Target> targets = new ConcurrentHashMap<>();
+
+    private static final class Target {
+        private final Block block;
+        private final Material type;
+        private final Inventory inventory;
+
+        private Target(Block block, Inventory inventory) {
+            this.block = block;
+            this.type = block == null ? null : block.getType();
+            this.inventory = inventory;
+        }
+
+        private boolean isValid() {
+            return block == null
+                    || block.getWorld().isChunkLoaded(block.getX() >> 4, block.getZ() >> 4)
+                    && block.getType() == type;
+        }
+    }
+
+    // Null when the generator has no container next to it
+    public Inventory getInventory(Generator generator) {
+        Target target = targets.get(generator.getId());
+        if (target == null || !target.isValid()) {
+            target = find(generator);
+            targets.put(generator.getId(), target);
+        }
+        return target.inventory;
+    }
+
+    private static Target find(Generator generator) {
+        World world = generator.getLocation().getWorld();
+        if (world == null) {
+            return NONE;
+        }
+
+        Block origin = world.getBlockAt(generator.getBlockX(), generator.getBlockY(), generator.getBlockZ());
+        for (BlockFace face : FACES) {
+            Block block = origin.getRelative(face);
+            if (!world.isChunkLoaded(block.getX() >> 4, block.getZ() >> 4)) {
+                continue;
+            }
+            if (block.getState() instanceof Container container) {
+                Inventory inventory = container.getInventory();
+                if (STORAGE_TYPES.contains(inventory.getType())) {
+                    return new Target(block, inventory);
+                }
+            }
+        }
+        return NONE;
+    }
+
+    public void invalidate(Generator generator) {
+        targets.remove(generator.getId());
+    }
+
+    public void clear() {
+        targets.clear();
+    }
+
+    public boolean isEmpty() {
+        return targets.isEmpty();
+    }
+
+    public int size() {
+        return targets.size();
+    }
+}
@@ -0,0 +1,118 @@
+package com.speedier.fracturegens.managers;
+
+import com.speedier.fracturegens.utils.LocationKeys;
+import com.speedier.fracturegens.utils.LongObjectMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Counts, per world and chunk, how many players are within {@code radius}
+ * chunks. Updated only when a player crosses a chunk boundary, changes world,
+ * joins or quits, so proximity checks are a single map lookup. Synchronized,
+ * since region-threaded servers move players on several threads.
+ */
+public class PlayerProximityTracker {
+    private final int radius;
+    private final ProximityListener listener;
+    private final Map<UUID, TrackedPlayer> players = new HashMap<>();
+    private final Map<String, LongObjectMap<int[]>> coverage = new HashMap<>();
+
+    public interface ProximityListener {
+        void onProximityChanged(String worldName, int chunkX, int chunkZ, boolean nearPlayer);
+    }
+
+    private static final class TrackedPlayer {
+        private final String worldName;
+        private final int chunkX;
+        private final int chunkZ;
+
+        private TrackedPlayer(String worldName, int chunkX, int chunkZ) {
+            this.worldName = worldName;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+        }
+    }
+
+    public PlayerProximityTracker(int radius, ProximityListener listener) {
+        this.radius = Math.max(0, radius);
+        this.listener = listener;
+    }
+
+    public synchronized void updatePlayer(UUID playerId, String worldName, int chunkX, int chunkZ) {
+        TrackedPlayer previous = players.get(playerId);
+        if (previous != null && previous.worldName.equals(worldName) &&
+            previous.chunkX == chunkX && previous.chunkZ == chunkZ) {
+            return;
+        }
+
+        players.put(playerId, new TrackedPlayer(worldName, chunkX, chunkZ));
+        addArea(worldName, chunkX, chunkZ);
+        if (previous != null) {
+            removeArea(previous.worldName, previous.chunkX, previous.chunkZ);
+        }
+    }
+
+    public synchronized void removePlayer(UUID playerId) {
+        TrackedPlayer previous = players.remove(playerId);
+        if (previous != null) {
+            removeArea(previous.worldName, previous.chunkX, previous.chunkZ);
+        }
+    }
+
+    public synchronized boolean isNearPlayer(String worldName, int chunkX, int chunkZ) {
+        LongObjectMap<int[]> worldCoverage = coverage.get(worldName);
+        return worldCoverage != null && worldCoverage.containsKey(LocationKeys.chunkKey(chunkX, chunkZ));
+    }
+
+    public synchronized int getTrackedPlayerCount() {
+        return players.size();
+    }
+
+    public synchronized int getCoveredChunkCount() {
+        int count = 0;
+        for (LongObjectMap<int[]> worldCoverage : coverage.values()) {
+            count += worldCoverage.size();
+        }
+        return count;
+    }
+
+    private void addArea(String worldName, int centerX, int centerZ) {
+        LongObjectMap<int[]> worldCoverage = coverage.computeIfAbsent(worldName, k -> new LongObjectMap<>());
+        for (int chunkX = centerX - radius; chunkX <= centerX + radius; chunkX++) {
+            for (int chunkZ = centerZ - radius; chunkZ <= centerZ + radius; chunkZ++) {
+                long key = LocationKeys.chunkKey(chunkX, chunkZ);
+                int[] count = worldCoverage.get(key);
+                if (count != null) {
+                    count[0]++;
+                } else {
+                    worldCoverage.put(key, new int[] {1});
+                    listener.onProximityChanged(worldName, chunkX, chunkZ, true);
+                }
+            }
+        }
+    }
+
+    private void removeArea(String worldName, int centerX, int centerZ) {
+        LongObjectMap<int[]> worldCoverage = coverage.get(worldName);
+        if (worldCoverage == null) {
+            return;
+        }
+
+        for (int chunkX = centerX - radius; chunkX <= centerX + radius; chunkX++) {
+            for (int chunkZ = centerZ - radius; chunkZ <= centerZ + radius; chunkZ++) {
+                long key = LocationKeys.chunkKey(chunkX, chunkZ);
+                int[] count = worldCoverage.get(key);
+                if (count != null && --count[0] <= 0) {
+                    worldCoverage.remove(key);
+                    listener.onProximityChanged(worldName, chunkX, chunkZ, false);
+                }
+            }
+        }
+
+        if (worldCoverage.isEmpty()) {
+            coverage.remove(worldName);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.speedier.fracturegens.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counters, histograms and gauges for the generator pipeline. Everything is
+ * safe to update from any thread without locking; readers (the stats command,
+ * JMX, the Prometheus file writer) see values that are at most a few updates
+ * behind.
+ */
+public class GeneratorMetrics implements GeneratorMetricsMBean {
+    public static final String GENERATORS = "generators";
+    public static final String ACTIVE = "active_generators";
+    public static final String DETACHED = "detached_generators";
+    public static final String SCHEDULED = "scheduled_generators";
+    public static final String BACKLOG = "spawn_backlog";
+    public static final String LOCATION_INDEX = "location_index_entries";
+    public static final String CHUNK_INDEX = "chunk_index_entries";
+    public static final String OWNER_INDEX = "owner_index_entries";
+    public static final String GROUND_ITEMS = "tracked_ground_items";
+
+    private final LongAdder cycles = new LongAdder();
+    private final LongAdder itemsSpawned = new LongAdder();
+    private final LongAdder generatorsProcessed = new LongAdder();
+    private final LongAdder skippedUnloaded = new LongAdder();
+    private final LongAdder skippedDisabled = new LongAdder();
+    private final LongAdder skippedOverBudget = new LongAdder();
+    private final LongAdder mainThreadNanos = new LongAdder();
+    private final Histogram scanNanos = new Histogram();
+    private final Histogram spawnNanos = new Histogram();
+    private final Histogram itemsPerCycle = new Histogram();
+    private final Histogram saveNanos = new Histogram();
+    private volatile long loadNanos = -1;
+    private final Map<String, Gauge> gauges = new LinkedHashMap<>();
+
+    public static final class Gauge {
+        private final String help;
+        private final LongSupplier value;
+
+        private Gauge(String help, LongSupplier value) {
+            this.help = help;
+            this.value = value;
+        }
+
+        public String getHelp() { return help; }
+        public long getValue() { return value.getAsLong(); }
+    }
+
+    // Gauges are registered once, before any reader starts
+    public void registerGauge(String name, String help, LongSupplier value) {
+        gauges.put(name, new Gauge(help, value));
+    }
+
+    public void recordScan(long nanos, boolean mainThread) {
+        scanNanos.record(nanos);
+        if (mainThread) {
+            mainThreadNanos.add(nanos);
+        }
+    }
+
+    public void recordSpawnCycle(long nanos, int generators, int items) {
+        cycles.increment();
+        spawnNanos.record(nanos);
+        mainThreadNanos.add(nanos);
+        generatorsProcessed.add(generators);
+        itemsSpawned.add(items);
+        itemsPerCycle.record(items);
+    }
+
+    public void recordSkippedUnloaded() {
+        skippedUnloaded.increment();
+    }
+
+    public void recordSkippedDisabled() {
+        skippedDisabled.increment();
+    }
+
+    public void recordSkippedOverBudget(int generators) {
+        skippedOverBudget.add(generators);
+    }
+
+    public void recordSave(long nanos) {
+        saveNanos.record(nanos);
+    }
+
+    public void recordLoad(long nanos) {
+        loadNanos = nanos;
+    }
+
+    private long gauge(String name) {
+        Gauge gauge = gauges.get(name);
+        return gauge == null ? 0 : gauge.getValue();
+    }
+
+    public Map<String, Gauge> getGauges() { return Collections.unmodifiableMap(gauges); }
+    public Histogram getScanHistogram() { return scanNanos; }
+    public Histogram getSpawnHistogram() { return spawnNanos; }
+    public Histogram getItemsPerCycleHistogram() { return itemsPerCycle; }
+    public Histogram getSaveHistogram() { return saveNanos; }
+    public long getMainThreadNanos() { return mainThreadNanos.sum(); }
+    public long getLoadNanos() { return loadNanos; }
+
+    @Override public long getCycles() { return cycles.sum(); }
+    @Override public long getItemsSpawned() { return itemsSpawned.sum(); }
+    @Override public long getGeneratorsProcessed() { return generatorsProcessed.sum(); }
+    @Override public long getSkippedUnloaded() { return skippedUnloaded.sum(); }
+    @Override public long getSkippedDisabled() { return skippedDisabled.sum(); }
+    @Override public long getSkippedOverBudget() { return skippedOverBudget.sum(); }
+    @Override public long getScanMicrosP50() { return scanNanos.getQuantile(0.50) / 1000; }
+    @Override public long getScanMicrosP99() { return scanNanos.getQuantile(0.99) / 1000; }
+    @Override public long getSpawnMicrosP50() { return spawnNanos.getQuantile(0.50) / 1000; }
+    @Override public long getSpawnMicrosP99() { return spawnNanos.getQuantile(0.99) / 1000; }
+    @Override public long getSpawnMicrosMax() { return spawnNanos.getMax() / 1000; }
+    @Override public long getMainThreadMillisTotal() { return mainThreadNanos.sum() / 1_000_000; }
+    @Override public long getItemsPerCycleP50() { return itemsPerCycle.getQuantile(0.50); }
+    @Override public long getItemsPerCycleP99() { return itemsPerCycle.getQuantile(0.99); }
+    @Override public long getSaveMillisP50() { return saveNanos.getQuantile(0.50) / 1_000_000; }
+    @Override public long getSaveMillisP99() { return saveNanos.getQuantile(0.99) / 1_000_000; }
+    @Override public long getSaveMillisMax() { return saveNanos.getMax() / 1_000_000; }
+    @Override public long getLoadMillis() { return loadNanos < 0 ? -1 : loadNanos / 1_000_000; }
+    @Override public long getGenerators() { return gauge(GENERATORS); }
+    @Override public long getActiveGenerators() { return gauge(ACTIVE); }
+    @Override public long getDetachedGenerators() { return gauge(DETACHED); }
+    @Override public long getScheduledGenerators() { return gauge(SCHEDULED); }
+    @Override public long getSpawnBacklog() { return gauge(BACKLOG); }
+    @Override public long getLocationIndexSize() { return gauge(LOCATION_INDEX); }
+    @Override public long getChunkIndexSize() { return gauge(CHUNK_INDEX); }
+    @Override public long getOwnerIndexSize() { return gauge(OWNER_INDEX); }
+}
@@ -0,0 +1,60 @@
+package com.speedier.fracturegens.metrics;
+
+/**
+ * JMX view of {@link GeneratorMetrics}, registered as
+ * {@code com.speedier.fracturegens:type=GeneratorMetrics}. Durations are in
+ * microseconds unless the name says otherwise.
+ */
+public interface GeneratorMetricsMBean {
+    long getCycles();
+
+    long getItemsSpawned();
+
+    long getGeneratorsProcessed();
+
+    long getSkippedUnloaded();
+
+    long getSkippedDisabled();
+
+    long getSkippedOverBudget();
+
+    long getScanMicrosP50();
+
+    long getScanMicrosP99();
+
+    long getSpawnMicrosP50();
+
+    long getSpawnMicrosP99();
+
+    long getSpawnMicrosMax();
+
+    long getMainThreadMillisTotal();
+
+    long getItemsPerCycleP50();
+
+    long getItemsPerCycleP99();
+
+    long getSaveMillisP50();
+
+    long getSaveMillisP99();
+
+    long getSaveMillisMax();
+
+    long getLoadMillis();
+
+    long getGenerators();
+
+    long getActiveGenerators();
+
+    long getDetachedGenerators();
+
+    long getScheduledGenerators();
+
+    long getSpawnBacklog();
+
+    long getLocationIndexSize();
+
+    long getChunkIndexSize();
+
+    long getOwnerIndexSize();
+}
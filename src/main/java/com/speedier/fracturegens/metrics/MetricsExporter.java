@@ -0,0 +1,181 @@
+package com.speedier.fracturegens.metrics;
+
+import com.speedier.fracturegens.scheduler.TaskScheduler;
+import com.speedier.fracturegens.utils.PerformanceUtils;
+import com.speedier.fracturegens.utils.TickSampler;
+import org.bukkit.plugin.Plugin;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Publishes {@link GeneratorMetrics} as a platform MBean and, optionally, as a
+ * Prometheus text exposition file rewritten on an async timer. The file is
+ * replaced atomically so a node exporter textfile collector never reads a
+ * partial write.
+ */
+public class MetricsExporter {
+    private static final String OBJECT_NAME = "com.speedier.fracturegens:type=GeneratorMetrics";
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+    private final Plugin plugin;
+    private final TaskScheduler taskScheduler;
+    private final GeneratorMetrics metrics;
+    private ObjectName registeredName;
+    private TaskScheduler.Task fileTask;
+
+    public MetricsExporter(Plugin plugin, TaskScheduler taskScheduler, GeneratorMetrics metrics) {
+        this.plugin = plugin;
+        this.taskScheduler = taskScheduler;
+        this.metrics = metrics;
+    }
+
+    public void start() {
+        stop();
+
+        if (plugin.getConfig().getBoolean("metrics.jmx", true)) {
+            registerMBean();
+        }
+
+        if (plugin.getConfig().getBoolean("metrics.prometheus.enabled", false)) {
+            String path = plugin.getConfig().getString("metrics.prometheus.file", "metrics/fracturegens.prom");
+            File file = new File(path);
+            File target = file.isAbsolute() ? file : new File(plugin.getDataFolder(), path);
+            long intervalTicks = Math.max(1, plugin.getConfig().getLong("metrics.prometheus.interval-seconds", 15)) * 20L;
+            fileTask = taskScheduler.runAsyncTimer(() -> writeFile(target), intervalTicks, intervalTicks);
+        }
+    }
+
+    public void stop() {
+        if (fileTask != null) {
+            fileTask.cancel();
+            fileTask = null;
+        }
+        if (registeredName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to unregister metrics MBean: " + e.getMessage());
+            }
+            registeredName = null;
+        }
+    }
+
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            // A previous instance survives if the plugin was reloaded without a clean disable
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(metrics, name);
+            registeredName = name;
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to register metrics MBean: " + e.getMessage());
+        }
+    }
+
+    private void writeFile(File target) {
+        try {
+            File parent = target.getAbsoluteFile().getParentFile();
+            if (parent != null) {
+                Files.createDirectories(parent.toPath());
+            }
+            File temp = new File(parent, target.getName() + ".tmp");
+            Files.write(temp.toPath(), render().getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to write metrics file " + target + ": " + e.getMessage());
+        }
+    }
+
+    public String render() {
+        StringBuilder out = new StringBuilder(4096);
+
+        counter(out, "cycles_total", "Spawn cycles run on the main thread", metrics.getCycles());
+        counter(out, "items_spawned_total", "Items produced by generators", metrics.getItemsSpawned());
+        counter(out, "generators_processed_total", "Due generators handled in spawn cycles",
+                metrics.getGeneratorsProcessed());
+        out.append("# HELP fracturegens_generators_skipped_total Due generators not spawned, by reason\n");
+        out.append("# TYPE fracturegens_generators_skipped_total counter\n");
+        sample(out, "generators_skipped_total{reason=\"unloaded\"}", metrics.getSkippedUnloaded());
+        sample(out, "generators_skipped_total{reason=\"disabled\"}", metrics.getSkippedDisabled());
+        sample(out, "generators_skipped_total{reason=\"over_budget\"}", metrics.getSkippedOverBudget());
+        counter(out, "main_thread_seconds_total", "Main-thread time spent scanning and spawning",
+                metrics.getMainThreadNanos() / 1e9);
+
+        summary(out, "scan_seconds", "Time to collect due generators per cycle", metrics.getScanHistogram(), 1e9);
+        summary(out, "spawn_seconds", "Main-thread time spent spawning per cycle", metrics.getSpawnHistogram(), 1e9);
+        summary(out, "items_per_cycle", "Items spawned per cycle", metrics.getItemsPerCycleHistogram(), 1);
+        summary(out, "save_seconds", "Snapshot save duration", metrics.getSaveHistogram(), 1e9);
+        if (metrics.getLoadNanos() >= 0) {
+            gauge(out, "load_seconds", "Duration of the initial generator load", metrics.getLoadNanos() / 1e9);
+        }
+
+        for (Map.Entry<String, GeneratorMetrics.Gauge> entry : metrics.getGauges().entrySet()) {
+            gauge(out, entry.getKey(), entry.getValue().getHelp(), entry.getValue().getValue());
+        }
+
+        TickSampler.Stats tick = PerformanceUtils.getTickStats();
+        if (tick != null && tick.getSamples() > 0) {
+            gauge(out, "server_tps", "Server ticks per second over the sampler window", tick.getTps());
+            out.append("# HELP fracturegens_server_tick_seconds Server tick interval over the sampler window\n");
+            out.append("# TYPE fracturegens_server_tick_seconds gauge\n");
+            sample(out, "server_tick_seconds{quantile=\"0.5\"}", tick.getP50Millis() / 1000.0);
+            sample(out, "server_tick_seconds{quantile=\"0.95\"}", tick.getP95Millis() / 1000.0);
+            sample(out, "server_tick_seconds{quantile=\"0.99\"}", tick.getP99Millis() / 1000.0);
+            counter(out, "server_lag_spikes_total", "Ticks that took longer than the lag spike threshold",
+                    PerformanceUtils.getLagSpikes());
+        }
+        return out.toString();
+    }
+
+    private static void counter(StringBuilder out, String name, String help, double value) {
+        header(out, name, help, "counter");
+        sample(out, name, value);
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, double value) {
+        header(out, name, help, "gauge");
+        sample(out, name, value);
+    }
+
+    private static void summary(StringBuilder out, String name, String help, Histogram histogram, double scale) {
+        header(out, name, help, "summary");
+        for (double quantile : QUANTILES) {
+            sample(out, name + "{quantile=\"" + quantile + "\"}", histogram.getQuantile(quantile) / scale);
+        }
+        sample(out, name + "_sum", histogram.getSum() / scale);
+        sample(out, name + "_count", histogram.getCount());
+    }
+
+    private static void header(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP fracturegens_").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE fracturegens_").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, double value) {
+        out.append("fracturegens_").append(name).append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(String.format(Locale.ROOT, "%.9g", value));
+        }
+        out.append('\n');
+    }
+}
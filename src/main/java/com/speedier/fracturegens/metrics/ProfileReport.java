@@ -0,0 +1,131 @@
+package com.speedier.fracturegens.metrics;
+
+import com.speedier.fracturegens.models.Generator;
+import com.speedier.fracturegens.utils.LocationKeys;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Spawn work from one profiling session, grouped by generator, chunk, owner
+ * and world and sorted by time spent. Built from {@link SpawnProfiler.Samples}
+ * on any thread; it only reads the generators' immutable identity fields.
+ */
+public class ProfileReport {
+    private final long wallNanos;
+    private final long dropped;
+    private final Entry total = new Entry(null, null, 0, 0, null);
+    private final List<Entry> generators;
+    private final List<Entry> chunks;
+    private final List<Entry> owners;
+    private final List<Entry> worlds;
+
+    public static final class Entry {
+        private final Generator generator;
+        private final String world;
+        private final int chunkX;
+        private final int chunkZ;
+        private final UUID owner;
+        private long spawns;
+        private long items;
+        private long nanos;
+
+        private Entry(Generator generator, String world, int chunkX, int chunkZ, UUID owner) {
+            this.generator = generator;
+            this.world = world;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.owner = owner;
+        }
+
+        private void add(int amount, long elapsed) {
+            spawns++;
+            items += amount;
+            nanos += elapsed;
+        }
+
+        public Generator getGenerator() { return generator; }
+        public String getWorld() { return world; }
+        public int getChunkX() { return chunkX; }
+        public int getChunkZ() { return chunkZ; }
+        public UUID getOwner() { return owner; }
+        public long getSpawns() { return spawns; }
+        public long getItems() { return items; }
+        public long getNanos() { return nanos; }
+    }
+
+    private ProfileReport(long wallNanos, long dropped, List<Entry> generators, List<Entry> chunks,
+                          List<Entry> owners, List<Entry> worlds) {
+        this.wallNanos = wallNanos;
+        this.dropped = dropped;
+        this.generators = generators;
+        this.chunks = chunks;
+        this.owners = owners;
+        this.worlds = worlds;
+    }
+
+    public static ProfileReport aggregate(SpawnProfiler.Samples samples) {
+        Map<Generator, Entry> byGenerator = new IdentityHashMap<>();
+        Map<String, Map<Long, Entry>> byChunk = new HashMap<>();
+        Map<UUID, Entry> byOwner = new HashMap<>();
+        Map<String, Entry> byWorld = new HashMap<>();
+
+        for (int i = 0; i < samples.size(); i++) {
+            Generator generator = samples.getGenerator(i);
+            int amount = samples.getItems(i);
+            long elapsed = samples.getNanos(i);
+            String world = generator.getWorldName();
+            int chunkX = generator.getChunkX();
+            int chunkZ = generator.getChunkZ();
+            UUID owner = generator.getOwner();
+
+            byGenerator.computeIfAbsent(generator, g -> new Entry(g, world, chunkX, chunkZ, owner))
+                    .add(amount, elapsed);
+            byChunk.computeIfAbsent(world, k -> new HashMap<>())
+                    .computeIfAbsent(LocationKeys.chunkKey(chunkX, chunkZ),
+                            k -> new Entry(null, world, chunkX, chunkZ, null))
+                    .add(amount, elapsed);
+            byOwner.computeIfAbsent(owner, k -> new Entry(null, null, 0, 0, owner)).add(amount, elapsed);
+            byWorld.computeIfAbsent(world, k -> new Entry(null, world, 0, 0, null)).add(amount, elapsed);
+        }
+
+        List<Entry> chunkEntries = new ArrayList<>();
+        for (Map<Long, Entry> worldChunks : byChunk.values()) {
+            chunkEntries.addAll(worldChunks.values());
+        }
+
+        ProfileReport report = new ProfileReport(samples.getWallNanos(), samples.getDropped(),
+                sorted(byGenerator.values()), sorted(chunkEntries), sorted(byOwner.values()),
+                sorted(byWorld.values()));
+        for (Entry world : report.worlds) {
+            report.total.spawns += world.spawns;
+            report.total.items += world.items;
+            report.total.nanos += world.nanos;
+        }
+        return report;
+    }
+
+    private static List<Entry> sorted(Collection<Entry> entries) {
+        List<Entry> list = new ArrayList<>(entries);
+        list.sort(Comparator.comparingLong(Entry::getNanos).reversed());
+        return list;
+    }
+
+    public double getShare(Entry entry) {
+        return total.nanos == 0 ? 0 : (double) entry.nanos / total.nanos;
+    }
+
+    public long getWallNanos() { return wallNanos; }
+    public long getDropped() { return dropped; }
+    public Entry getTotal() { return total; }
+    public List<Entry> getGenerators() { return generators; }
+    public List<Entry> getChunks() { return chunks; }
+    public List<Entry> getOwners() { return owners; }
+    public List<Entry> getWorlds() { return worlds; }
+}
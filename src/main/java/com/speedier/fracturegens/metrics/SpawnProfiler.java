@@ -0,0 +1,98 @@
+package com.speedier.fracturegens.metrics;
+
+import com.speedier.fracturegens.models.Generator;
+
+import java.util.Arrays;
+
+/**
+ * Records every generator spawn while a profiling session is running. The
+ * spawning thread only appends to flat arrays, under the session's lock since
+ * region-threaded servers spawn on several threads; grouping by chunk, owner
+ * and world happens later in {@link ProfileReport}, off the main thread. When
+ * no session is running the cost is a single field check.
+ * <p>
+ * {@link #stop()} closes the session under the same lock, so every sample
+ * added before it is visible to the thread that stopped it (and any thread it
+ * hands the samples to), and spawns still in flight can't add more.
+ */
+public class SpawnProfiler {
+    public static final int MAX_SAMPLES = 2_000_000;
+
+    private volatile Samples current;
+
+    public static final class Samples {
+        private final long startNanos;
+        private long endNanos;
+        private Generator[] generators = new Generator[4096];
+        private int[] items = new int[4096];
+        private long[] nanos = new long[4096];
+        private int size;
+        private long dropped;
+        private boolean stopped;
+
+        private Samples(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        private synchronized void add(Generator generator, int amount, long elapsed) {
+            if (stopped) {
+                return;
+            }
+            if (size == generators.length) {
+                if (size >= MAX_SAMPLES) {
+                    dropped++;
+                    return;
+                }
+                int capacity = Math.min(MAX_SAMPLES, size << 1);
+                generators = Arrays.copyOf(generators, capacity);
+                items = Arrays.copyOf(items, capacity);
+                nanos = Arrays.copyOf(nanos, capacity);
+            }
+            generators[size] = generator;
+            items[size] = amount;
+            nanos[size] = elapsed;
+            size++;
+        }
+
+        private synchronized void close(long nanos) {
+            stopped = true;
+            endNanos = nanos;
+        }
+
+        public int size() { return size; }
+        public Generator getGenerator(int index) { return generators[index]; }
+        public int getItems(int index) { return items[index]; }
+        public long getNanos(int index) { return nanos[index]; }
+        public long getDropped() { return dropped; }
+        public long getWallNanos() { return endNanos - startNanos; }
+    }
+
+    public boolean isActive() {
+        return current != null;
+    }
+
+    public boolean start() {
+        if (current != null) {
+            return false;
+        }
+        current = new Samples(System.nanoTime());
+        return true;
+    }
+
+    // Ends the session and hands its samples over; null if none was running
+    public Samples stop() {
+        Samples samples = current;
+        current = null;
+        if (samples != null) {
+            samples.close(System.nanoTime());
+        }
+        return samples;
+    }
+
+    public void record(Generator generator, int items, long nanos) {
+        Samples samples = current;
+        if (samples != null) {
+            samples.add(generator, items, nanos);
+        }
+    }
+}
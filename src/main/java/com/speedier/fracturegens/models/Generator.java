@@ -8,70 +8,169 @@ import org.bukkit.inventory.ItemStack;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class Generator {
     private final UUID id;
     private final Location location;
+    private final String worldName;
     private final UUID owner;
-    private List<ItemStack> items;
-    private int spawnRate;
-    private SpawnDirection direction;
-    private boolean enabled;
-    private long lastSpawn;
+    // Edits can come from several threads at once; each applies to the latest config
+    private final AtomicReference<GeneratorConfig> config;
+    // Production state is only written by the thread that owns the generator's
+    // chunk (the main thread, or its region's thread); GeneratorManager hands
+    // changes made elsewhere to that thread. Volatile so the async scheduler
+    // and saves see whole values when they read it.
+    private volatile long lastSpawn;
+    private volatile long productionTime;
+    private volatile double pendingOutput;
+    private volatile double rateMultiplier = 1.0;
+    // Set while output has nowhere to go; nothing accrues until it's cleared
+    private volatile boolean outputBlocked;
     
     public enum SpawnDirection {
         TOP, SIDES, RANDOM
     }
     
+    public enum OutputMode {
+        DROP, CONTAINER
+    }
+    
     public Generator(Location location, UUID owner) {
         this.id = UUID.randomUUID();
         this.location = location.clone();
+        this.worldName = location.getWorld().getName();
         this.owner = owner;
-        this.items = new ArrayList<>();
-        this.items.add(new ItemStack(Material.COBBLESTONE, 1));
-        this.spawnRate = 60;
-        this.direction = SpawnDirection.TOP;
-        this.enabled = true;
+        this.config = new AtomicReference<>(GeneratorConfig.defaults());
         this.lastSpawn = System.currentTimeMillis();
+        this.productionTime = lastSpawn;
     }
     
-    public Generator(UUID id, Location location, UUID owner, List<ItemStack> items, 
-                    int spawnRate, SpawnDirection direction, boolean enabled) {
+    public Generator(UUID id, Location location, UUID owner, GeneratorConfig config) {
         this.id = id;
         this.location = location.clone();
+        this.worldName = location.getWorld().getName();
         this.owner = owner;
-        this.items = new ArrayList<>(items);
-        this.spawnRate = spawnRate;
-        this.direction = direction;
-        this.enabled = enabled;
+        this.config = new AtomicReference<>(config);
         this.lastSpawn = System.currentTimeMillis();
+        this.productionTime = lastSpawn;
     }
     
-    public boolean shouldSpawn() {
-        if (!enabled) return false;
-        
-        long currentTime = System.currentTimeMillis();
-        long timeSinceLastSpawn = currentTime - lastSpawn;
-        long spawnInterval = (60000 / spawnRate);
+    private double accruedSince(long now) {
+        if (!config.get().isEnabled() || outputBlocked || now <= productionTime) {
+            return 0;
+        }
+        return (now - productionTime) * getEffectiveRate() / 60000.0;
+    }
+    
+    public void accrue(long now) {
+        pendingOutput += accruedSince(now);
+        productionTime = Math.max(productionTime, now);
+    }
+    
+    public int catchUp(long now, double rateMultiplier, long maxMillis, int maxItems) {
+        long elapsed = Math.min(Math.max(0, now - productionTime), maxMillis);
+        productionTime = Math.max(productionTime, now);
+        // Like accrual, catch-up stops while output has nowhere to go
+        if (!config.get().isEnabled() || outputBlocked) {
+            return 0;
+        }
         
-        return timeSinceLastSpawn >= spawnInterval;
+        double owed = elapsed * config.get().getSpawnRate() * rateMultiplier / 60000.0;
+        int items = (int) Math.min(owed, maxItems);
+        pendingOutput += items;
+        return items;
     }
     
-    public void updateLastSpawn() {
-        this.lastSpawn = System.currentTimeMillis();
+    public void restoreProduction(long productionTime, double pendingOutput) {
+        this.productionTime = productionTime;
+        this.pendingOutput = Math.max(0, pendingOutput);
+    }
+    
+    public double getPendingOutput(long now) {
+        return pendingOutput + accruedSince(now);
+    }
+    
+    public int peekOutput(long now) {
+        return (int) (pendingOutput + accruedSince(now));
+    }
+    
+    // At most max items; the rest stays pending for the next spawn
+    public int takeOutput(long now, int max) {
+        accrue(now);
+        int owed = (int) Math.min(pendingOutput, max);
+        pendingOutput -= owed;
+        lastSpawn = now;
+        return owed;
+    }
+    
+    // Undelivered items go back to the pending output
+    public void returnOutput(int items) {
+        pendingOutput += items;
+    }
+    
+    public boolean isOutputBlocked() {
+        return outputBlocked;
+    }
+    
+    public void setOutputBlocked(boolean blocked, long now) {
+        accrue(now);
+        outputBlocked = blocked;
+    }
+    
+    public void resumeProduction(long now) {
+        productionTime = now;
+    }
+    
+    public double getEffectiveRate() {
+        return config.get().getSpawnRate() * rateMultiplier;
+    }
+    
+    public long getNextSpawnTime(long minInterval) {
+        if (getEffectiveRate() <= 0) {
+            return Long.MAX_VALUE;
+        }
+        long untilNextItem = (long) Math.ceil((1.0 - pendingOutput) * 60000.0 / getEffectiveRate());
+        return Math.max(lastSpawn + minInterval, productionTime + untilNextItem);
+    }
+    
+    public List<ItemStack> createOutput(int amount, int maxStackSize) {
+        LootTable loot = config.get().getLoot();
+        if (loot.isEmpty()) {
+            loot = LootTable.DEFAULT;
+        }
+        int[] counts = new int[loot.size()];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < amount; i++) {
+            counts[loot.sample(random)]++;
+        }
+        
+        List<ItemStack> output = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            int stackLimit = Math.max(1, Math.min(maxStackSize, loot.getMaxStackSize(i)));
+            int remaining = counts[i];
+            while (remaining > 0) {
+                int stackAmount = Math.min(remaining, stackLimit);
+                output.add(loot.create(i, stackAmount));
+                remaining -= stackAmount;
+            }
+        }
+        return output;
     }
     
     public ItemStack getRandomItem() {
-        if (items.isEmpty()) {
+        LootTable loot = config.get().getLoot();
+        if (loot.isEmpty()) {
             return new ItemStack(Material.COBBLESTONE, 1);
         }
-        return items.get((int) (Math.random() * items.size())).clone();
+        return loot.getItems().get(loot.sample(ThreadLocalRandom.current())).clone();
     }
     
     public Location getSpawnLocation() {
         Location spawnLoc = location.clone();
         
-        switch (direction) {
+        switch (config.get().getDirection()) {
             case TOP:
                 spawnLoc.add(0.5, 1.1, 0.5);
                 break;
@@ -99,13 +198,36 @@ public class Generator {
     
     public UUID getId() { return id; }
     public Location getLocation() { return location.clone(); }
+    public String getWorldName() { return worldName; }
+    public int getBlockX() { return location.getBlockX(); }
+    public int getBlockY() { return location.getBlockY(); }
+    public int getBlockZ() { return location.getBlockZ(); }
+    public int getChunkX() { return location.getBlockX() >> 4; }
+    public int getChunkZ() { return location.getBlockZ() >> 4; }
     public UUID getOwner() { return owner; }
-    public List<ItemStack> getItems() { return new ArrayList<>(items); }
-    public void setItems(List<ItemStack> items) { this.items = new ArrayList<>(items); }
-    public int getSpawnRate() { return spawnRate; }
-    public void setSpawnRate(int spawnRate) { this.spawnRate = Math.max(1, Math.min(300, spawnRate)); }
-    public SpawnDirection getDirection() { return direction; }
-    public void setDirection(SpawnDirection direction) { this.direction = direction; }
-    public boolean isEnabled() { return enabled; }
-    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public GeneratorConfig getConfig() { return config.get(); }
+    public List<ItemStack> getItems() { return config.get().getItems(); }
+    public LootTable getLoot() { return config.get().getLoot(); }
+    public void setLoot(LootTable loot) { config.updateAndGet(c -> c.withLoot(loot)); }
+    public int getSpawnRate() { return config.get().getSpawnRate(); }
+    public void setSpawnRate(int spawnRate) {
+        accrue(System.currentTimeMillis());
+        config.updateAndGet(c -> c.withSpawnRate(Math.max(1, Math.min(300, spawnRate))));
+    }
+    public SpawnDirection getDirection() { return config.get().getDirection(); }
+    public void setDirection(SpawnDirection direction) { config.updateAndGet(c -> c.withDirection(direction)); }
+    public OutputMode getOutputMode() { return config.get().getOutputMode(); }
+    public void setOutputMode(OutputMode outputMode) { config.updateAndGet(c -> c.withOutputMode(outputMode)); }
+    public long getProductionTime() { return productionTime; }
+    public double getPendingOutput() { return pendingOutput; }
+    public boolean isEnabled() { return config.get().isEnabled(); }
+    public double getRateMultiplier() { return rateMultiplier; }
+    public void setRateMultiplier(double rateMultiplier) {
+        accrue(System.currentTimeMillis());
+        this.rateMultiplier = Math.max(0, rateMultiplier);
+    }
+    public void setEnabled(boolean enabled) {
+        accrue(System.currentTimeMillis());
+        config.updateAndGet(c -> c.withEnabled(enabled));
+    }
 }
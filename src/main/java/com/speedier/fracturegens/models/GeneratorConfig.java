@@ -0,0 +1,66 @@
+package com.speedier.fracturegens.models;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.util.List;
+
+/**
+ * The player-configurable part of a generator. Instances are immutable and a
+ * generator swaps in a new one on every change, so any thread can read a
+ * consistent configuration without locking. The item stacks are shared, never
+ * modified; callers clone them before use.
+ */
+public final class GeneratorConfig {
+    private final LootTable loot;
+    private final int spawnRate;
+    private final Generator.SpawnDirection direction;
+    private final Generator.OutputMode outputMode;
+    private final boolean enabled;
+
+    public GeneratorConfig(LootTable loot, int spawnRate, Generator.SpawnDirection direction, boolean enabled) {
+        this(loot, spawnRate, direction, Generator.OutputMode.DROP, enabled);
+    }
+
+    public GeneratorConfig(LootTable loot, int spawnRate, Generator.SpawnDirection direction,
+                           Generator.OutputMode outputMode, boolean enabled) {
+        this.loot = loot;
+        this.spawnRate = spawnRate;
+        this.direction = direction;
+        this.outputMode = outputMode;
+        this.enabled = enabled;
+    }
+
+    public static GeneratorConfig defaults() {
+        return new GeneratorConfig(LootTable.DEFAULT, 60, Generator.SpawnDirection.TOP, true);
+    }
+
+    public GeneratorConfig withLoot(LootTable loot) {
+        return loot == this.loot ? this : new GeneratorConfig(loot, spawnRate, direction, outputMode, enabled);
+    }
+
+    public GeneratorConfig withSpawnRate(int spawnRate) {
+        return spawnRate == this.spawnRate ? this
+                : new GeneratorConfig(loot, spawnRate, direction, outputMode, enabled);
+    }
+
+    public GeneratorConfig withDirection(Generator.SpawnDirection direction) {
+        return direction == this.direction ? this
+                : new GeneratorConfig(loot, spawnRate, direction, outputMode, enabled);
+    }
+
+    public GeneratorConfig withOutputMode(Generator.OutputMode outputMode) {
+        return outputMode == this.outputMode ? this
+                : new GeneratorConfig(loot, spawnRate, direction, outputMode, enabled);
+    }
+
+    public GeneratorConfig withEnabled(boolean enabled) {
+        return enabled == this.enabled ? this : new GeneratorConfig(loot, spawnRate, direction, outputMode, enabled);
+    }
+
+    public LootTable getLoot() { return loot; }
+    public List<ItemStack> getItems() { return loot.getItems(); }
+    public int getSpawnRate() { return spawnRate; }
+    public Generator.SpawnDirection getDirection() { return direction; }
+    public Generator.OutputMode getOutputMode() { return outputMode; }
+    public boolean isEnabled() { return enabled; }
+}
@@ -0,0 +1,155 @@
+package com.speedier.fracturegens.models;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A generator's weighted outputs. Immutable: the item stacks are prototypes
+ * that are only ever cloned, and the alias table (Vose's method) is built once
+ * so each draw is two random numbers regardless of the number of entries.
+ */
+public final class LootTable {
+    public static final int MAX_WEIGHT = 100;
+    public static final LootTable DEFAULT = uniform(List.of(new ItemStack(Material.COBBLESTONE, 1)));
+
+    private final List<ItemStack> items;
+    private final List<Integer> weights;
+    private final int[] maxStackSizes;
+    private final double[] probability;
+    private final int[] alias;
+    private final int totalWeight;
+
+    /**
+     * Missing or out-of-range weights fall back to 1, so a weight list that
+     * doesn't line up with the items (older data) still yields a valid table.
+     */
+    public LootTable(List<ItemStack> items, List<Integer> weights) {
+        int size = items.size();
+        this.items = List.copyOf(items);
+        Integer[] normalized = new Integer[size];
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            Integer weight = weights != null && i < weights.size() ? weights.get(i) : null;
+            normalized[i] = weight == null ? 1 : Math.max(1, Math.min(MAX_WEIGHT, weight));
+            total += normalized[i];
+        }
+        this.weights = List.of(normalized);
+        this.totalWeight = total;
+
+        this.maxStackSizes = new int[size];
+        for (int i = 0; i < size; i++) {
+            maxStackSizes[i] = Math.max(1, this.items.get(i).getMaxStackSize());
+        }
+
+        this.probability = new double[size];
+        this.alias = new int[size];
+        buildAliasTable();
+    }
+
+    public static LootTable uniform(List<ItemStack> items) {
+        return new LootTable(items, Collections.emptyList());
+    }
+
+    private void buildAliasTable() {
+        int size = items.size();
+        if (size == 0) {
+            return;
+        }
+
+        double[] scaled = new double[size];
+        int[] small = new int[size];
+        int[] large = new int[size];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < size; i++) {
+            scaled[i] = (double) weights.get(i) * size / totalWeight;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // Whatever is left is 1.0 up to rounding error
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1.0;
+        }
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1.0;
+        }
+    }
+
+    public int sample(Random random) {
+        int size = items.size();
+        if (size <= 1) {
+            return 0;
+        }
+        int column = random.nextInt(size);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+
+    public ItemStack create(int index, int amount) {
+        ItemStack stack = items.get(index).clone();
+        stack.setAmount(amount);
+        return stack;
+    }
+
+    public LootTable withEntry(ItemStack item, int weight) {
+        List<ItemStack> newItems = new ArrayList<>(items);
+        List<Integer> newWeights = new ArrayList<>(weights);
+        newItems.add(item);
+        newWeights.add(weight);
+        return new LootTable(newItems, newWeights);
+    }
+
+    public LootTable withoutEntry(int index) {
+        List<ItemStack> newItems = new ArrayList<>(items);
+        List<Integer> newWeights = new ArrayList<>(weights);
+        newItems.remove(index);
+        newWeights.remove(index);
+        return new LootTable(newItems, newWeights);
+    }
+
+    public LootTable withWeight(int index, int weight) {
+        List<Integer> newWeights = new ArrayList<>(weights);
+        newWeights.set(index, weight);
+        return new LootTable(items, newWeights);
+    }
+
+    public int indexOf(ItemStack item) {
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).isSimilar(item)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public double getChance(int index) {
+        return (double) weights.get(index) / totalWeight;
+    }
+
+    public List<ItemStack> getItems() { return items; }
+    public List<Integer> getWeights() { return weights; }
+    public int getWeight(int index) { return weights.get(index); }
+    public int getMaxStackSize(int index) { return maxStackSizes[index]; }
+    public int size() { return items.size(); }
+    public boolean isEmpty() { return items.isEmpty(); }
+}
@@ -0,0 +1,141 @@
+package com.speedier.fracturegens.scheduler;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Folia's region schedulers. The plugin compiles against the Spigot API, which
+ * doesn't have them, so they are looked up reflectively once and called
+ * through the resolved methods. Folia rejects delays below one tick, so
+ * shorter ones are rounded up. Chunk tasks submitted from the region that
+ * already owns the chunk run immediately.
+ */
+public class RegionTaskScheduler implements TaskScheduler {
+    private static final String SCHEDULER_PACKAGE = "io.papermc.paper.threadedregions.scheduler.";
+    private static final long MILLIS_PER_TICK = 50L;
+
+    private final Plugin plugin;
+    private final Server server;
+    private final Object globalScheduler;
+    private final Object regionScheduler;
+    private final Object asyncScheduler;
+    private final Method globalExecute;
+    private final Method globalRunDelayed;
+    private final Method globalRunAtFixedRate;
+    private final Method regionExecute;
+    private final Method asyncRunNow;
+    private final Method asyncRunAtFixedRate;
+    private final Method cancel;
+    private final Method ownedByCurrentRegion;
+
+    public static boolean isSupported() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    public RegionTaskScheduler(Plugin plugin) {
+        this.plugin = plugin;
+        try {
+            Class<?> globalType = Class.forName(SCHEDULER_PACKAGE + "GlobalRegionScheduler");
+            Class<?> regionType = Class.forName(SCHEDULER_PACKAGE + "RegionScheduler");
+            Class<?> asyncType = Class.forName(SCHEDULER_PACKAGE + "AsyncScheduler");
+            Class<?> taskType = Class.forName(SCHEDULER_PACKAGE + "ScheduledTask");
+
+            this.server = Bukkit.getServer();
+            this.globalScheduler = Server.class.getMethod("getGlobalRegionScheduler").invoke(server);
+            this.regionScheduler = Server.class.getMethod("getRegionScheduler").invoke(server);
+            this.asyncScheduler = Server.class.getMethod("getAsyncScheduler").invoke(server);
+
+            this.globalExecute = globalType.getMethod("execute", Plugin.class, Runnable.class);
+            this.globalRunDelayed = globalType.getMethod("runDelayed", Plugin.class, Consumer.class, long.class);
+            this.globalRunAtFixedRate = globalType.getMethod("runAtFixedRate",
+                    Plugin.class, Consumer.class, long.class, long.class);
+            this.regionExecute = regionType.getMethod("execute",
+                    Plugin.class, World.class, int.class, int.class, Runnable.class);
+            this.asyncRunNow = asyncType.getMethod("runNow", Plugin.class, Consumer.class);
+            this.asyncRunAtFixedRate = asyncType.getMethod("runAtFixedRate",
+                    Plugin.class, Consumer.class, long.class, long.class, TimeUnit.class);
+            this.cancel = taskType.getMethod("cancel");
+            this.ownedByCurrentRegion = Server.class.getMethod("isOwnedByCurrentRegion",
+                    World.class, int.class, int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Region schedulers are not available: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Task runTimer(Runnable task, long delayTicks, long periodTicks) {
+        return handle(invoke(globalRunAtFixedRate, globalScheduler,
+                plugin, consumer(task), Math.max(1, delayTicks), Math.max(1, periodTicks)));
+    }
+
+    @Override
+    public Task runLater(Runnable task, long delayTicks) {
+        return handle(invoke(globalRunDelayed, globalScheduler, plugin, consumer(task), Math.max(1, delayTicks)));
+    }
+
+    @Override
+    public void run(Runnable task) {
+        invoke(globalExecute, globalScheduler, plugin, task);
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        invoke(asyncRunNow, asyncScheduler, plugin, consumer(task));
+    }
+
+    @Override
+    public Task runAsyncTimer(Runnable task, long delayTicks, long periodTicks) {
+        return handle(invoke(asyncRunAtFixedRate, asyncScheduler, plugin, consumer(task),
+                Math.max(1, delayTicks) * MILLIS_PER_TICK, Math.max(1, periodTicks) * MILLIS_PER_TICK,
+                TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    public void runAtChunk(World world, int chunkX, int chunkZ, Runnable task) {
+        if ((Boolean) invoke(ownedByCurrentRegion, server, world, chunkX, chunkZ)) {
+            task.run();
+            return;
+        }
+        invoke(regionExecute, regionScheduler, plugin, world, chunkX, chunkZ, task);
+    }
+
+    @Override
+    public boolean isRegionThreaded() {
+        return true;
+    }
+
+    // Folia hands each run its ScheduledTask; the plugin's tasks don't need it
+    private static Consumer<Object> consumer(Runnable task) {
+        return scheduledTask -> task.run();
+    }
+
+    private Task handle(Object scheduledTask) {
+        return () -> invoke(cancel, scheduledTask);
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(cause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.speedier.fracturegens.scheduler;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+public class SpawnBudget {
+    private final int total;
+    private final int perWorld;
+    private final int perOwner;
+    private final Map<String, Integer> worldUsage = new HashMap<>();
+    private final Map<UUID, Integer> ownerUsage = new HashMap<>();
+    private int used;
+    private int waiting;
+
+    public SpawnBudget(int total, int perWorld, int perOwner) {
+        this.total = Math.max(0, total);
+        this.perWorld = perWorld > 0 ? perWorld : Integer.MAX_VALUE;
+        this.perOwner = perOwner > 0 ? perOwner : Integer.MAX_VALUE;
+    }
+
+    public boolean isExhausted() {
+        return used >= total;
+    }
+
+    public boolean isWorldExhausted(String world) {
+        return worldUsage.getOrDefault(world, 0) >= perWorld;
+    }
+
+    public boolean isOwnerExhausted(UUID owner) {
+        return ownerUsage.getOrDefault(owner, 0) >= perOwner;
+    }
+
+    public int getRemaining() {
+        return total - used;
+    }
+
+    public int getWorldRemaining(String world) {
+        return perWorld - worldUsage.getOrDefault(world, 0);
+    }
+
+    public int getOwnerRemaining(UUID owner) {
+        return perOwner - ownerUsage.getOrDefault(owner, 0);
+    }
+
+    // The most one generator may be given in a cycle, so it always fits a fresh
+    // budget; anything it owes beyond that is delivered over the next cycles
+    public int getMaxPerGenerator() {
+        return Math.min(total, Math.min(perWorld, perOwner));
+    }
+
+    public void spend(String world, UUID owner, int amount) {
+        used += amount;
+        worldUsage.merge(world, amount, Integer::sum);
+        ownerUsage.merge(owner, amount, Integer::sum);
+    }
+
+    void setWaiting(int waiting) {
+        this.waiting = waiting;
+    }
+
+    public int getTotal() { return total; }
+    public int getPerWorld() { return perWorld == Integer.MAX_VALUE ? 0 : perWorld; }
+    public int getPerOwner() { return perOwner == Integer.MAX_VALUE ? 0 : perOwner; }
+    public int getUsed() { return used; }
+    public int getWaiting() { return waiting; }
+    public Map<String, Integer> getWorldUsage() { return Collections.unmodifiableMap(worldUsage); }
+    public Map<UUID, Integer> getOwnerUsage() { return Collections.unmodifiableMap(ownerUsage); }
+}
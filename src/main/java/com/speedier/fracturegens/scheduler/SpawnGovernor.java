@@ -0,0 +1,75 @@
+package com.speedier.fracturegens.scheduler;
+
+/**
+ * Main-thread time budget for each spawn cycle, sized from measured tick time.
+ * When ticks run above the shrink threshold the budget is halved each cycle;
+ * it only grows back, a step at a time, after several consecutive cycles below
+ * the lower recover threshold. The gap between the two thresholds keeps the
+ * budget from flapping while the server sits near its limit.
+ */
+public class SpawnGovernor {
+    private final long maxBudgetNanos;
+    private final long minBudgetNanos;
+    private final long recoverStepNanos;
+    private final double shrinkAboveMillis;
+    private final double recoverBelowMillis;
+    private final int recoverCycles;
+    private long budgetNanos;
+    private int healthyCycles;
+    private double lastTickMillis;
+    private long lastCycleNanos;
+    private long exhaustedCycles;
+
+    public SpawnGovernor(double maxMillis, double minMillis, double shrinkAboveMillis, double recoverBelowMillis,
+                         int recoverCycles) {
+        this.maxBudgetNanos = Math.max(1L, (long) (maxMillis * 1_000_000L));
+        this.minBudgetNanos = Math.max(1L, Math.min(maxBudgetNanos, (long) (minMillis * 1_000_000L)));
+        this.recoverStepNanos = Math.max(1L, maxBudgetNanos / 10);
+        this.shrinkAboveMillis = shrinkAboveMillis;
+        this.recoverBelowMillis = Math.min(recoverBelowMillis, shrinkAboveMillis);
+        this.recoverCycles = Math.max(1, recoverCycles);
+        this.budgetNanos = maxBudgetNanos;
+    }
+
+    /** A governor that never limits the cycle, for when the time budget is disabled. */
+    public static SpawnGovernor unlimited() {
+        return new SpawnGovernor(Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE, 1);
+    }
+
+    // tickMillis <= 0 means the server can't report tick time; the budget holds
+    public void update(double tickMillis) {
+        lastTickMillis = tickMillis;
+        if (tickMillis <= 0) {
+            return;
+        }
+
+        if (tickMillis >= shrinkAboveMillis) {
+            budgetNanos = Math.max(minBudgetNanos, budgetNanos / 2);
+            healthyCycles = 0;
+        } else if (tickMillis <= recoverBelowMillis) {
+            if (++healthyCycles >= recoverCycles && budgetNanos < maxBudgetNanos) {
+                budgetNanos = Math.min(maxBudgetNanos, budgetNanos + recoverStepNanos);
+                healthyCycles = 0;
+            }
+        } else {
+            healthyCycles = 0;
+        }
+    }
+
+    public boolean isExhausted(long startNanos) {
+        return System.nanoTime() - startNanos >= budgetNanos;
+    }
+
+    public void recordCycle(long elapsedNanos, boolean exhausted) {
+        lastCycleNanos = elapsedNanos;
+        if (exhausted) {
+            exhaustedCycles++;
+        }
+    }
+
+    public long getBudgetNanos() { return budgetNanos; }
+    public long getMaxBudgetNanos() { return maxBudgetNanos; }
+    public double getLastTickMillis() { return lastTickMillis; }
+    public long getLastCycleNanos() { return lastCycleNanos; }
+    public long getExhaustedCycles() { return exhaustedCycles; }
+}
@@ -0,0 +1,309 @@
+package com.speedier.fracturegens.scheduler;
+
+import com.speedier.fracturegens.models.Generator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+
+/**
+ * Due-time queue of generators backed by an indexed binary min-heap, so each
+ * cycle only touches generators whose next spawn time has passed. Entries can
+ * be rescheduled or cancelled in place in O(log n).
+ * <p>
+ * Due generators move into per-world, per-owner ready queues that are served
+ * round-robin under a {@link SpawnBudget}. A generator is only taken when its
+ * whole cost still fits the budget. Anything the budget could not cover stays
+ * queued, and the rotation carries over, so the next cycle resumes where the
+ * previous one stopped. The per-owner limit only applies while other owners are
+ * waiting: once every owner left is at their limit, the rest of the total and
+ * world budget is shared out without it.
+ */
+public class SpawnScheduler {
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private Entry[] heap = new Entry[64];
+    private int size;
+    private final Map<String, WorldQueue> readyWorlds = new HashMap<>();
+    private final ArrayDeque<WorldQueue> worldRotation = new ArrayDeque<>();
+    private int readyCount;
+    // Returned by pollReady when the next generator doesn't fit the total budget
+    private static final Entry OUT_OF_BUDGET = new Entry(null, 0);
+
+    private static final class Entry {
+        private final Generator generator;
+        private long dueAt;
+        private int index;
+        private int cost;
+        private boolean ready;
+        private boolean cancelled;
+
+        private Entry(Generator generator, long dueAt) {
+            this.generator = generator;
+            this.dueAt = dueAt;
+        }
+    }
+
+    private static final class OwnerQueue {
+        private final UUID owner;
+        private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+
+        private OwnerQueue(UUID owner) {
+            this.owner = owner;
+        }
+    }
+
+    private static final class WorldQueue {
+        private final String world;
+        private final Map<UUID, OwnerQueue> owners = new HashMap<>();
+        private final ArrayDeque<OwnerQueue> rotation = new ArrayDeque<>();
+
+        private WorldQueue(String world) {
+            this.world = world;
+        }
+    }
+
+    public synchronized void schedule(Generator generator, long dueAt) {
+        Entry entry = entries.get(generator.getId());
+        if (entry != null && entry.ready) {
+            entry.cancelled = true;
+            entries.remove(generator.getId());
+            readyCount--;
+            entry = null;
+        }
+        if (entry != null) {
+            long previous = entry.dueAt;
+            entry.dueAt = dueAt;
+            if (dueAt < previous) {
+                siftUp(entry.index);
+            } else if (dueAt > previous) {
+                siftDown(entry.index);
+            }
+            return;
+        }
+
+        entry = new Entry(generator, dueAt);
+        entries.put(generator.getId(), entry);
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size << 1);
+        }
+        entry.index = size;
+        heap[size++] = entry;
+        siftUp(entry.index);
+    }
+
+    public synchronized boolean cancel(UUID generatorId) {
+        Entry entry = entries.remove(generatorId);
+        if (entry == null) {
+            return false;
+        }
+        if (entry.ready) {
+            entry.cancelled = true;
+            readyCount--;
+        } else {
+            removeAt(entry.index);
+        }
+        return true;
+    }
+
+    public synchronized boolean isScheduled(UUID generatorId) {
+        return entries.containsKey(generatorId);
+    }
+
+    public synchronized long getNextDueAt() {
+        return size == 0 ? Long.MAX_VALUE : heap[0].dueAt;
+    }
+
+    public synchronized List<Generator> pollDue(long now, SpawnBudget budget, ToIntFunction<Generator> cost) {
+        while (size > 0 && heap[0].dueAt <= now) {
+            Entry entry = heap[0];
+            removeAt(0);
+            enqueueReady(entry);
+        }
+
+        List<Generator> due = new ArrayList<>();
+        boolean ownerLimits = true;
+        int idleWorlds = 0;
+        while (!budget.isExhausted() && !worldRotation.isEmpty()) {
+            if (idleWorlds >= worldRotation.size()) {
+                if (!ownerLimits) {
+                    break;
+                }
+                // Nothing left that fits under the owner limits; nobody else is
+                // waiting, so the owners at their limit share what remains
+                ownerLimits = false;
+                idleWorlds = 0;
+            }
+
+            WorldQueue worldQueue = worldRotation.pollFirst();
+            Entry entry = pollReady(worldQueue, budget, cost, ownerLimits);
+            if (entry == OUT_OF_BUDGET) {
+                // This world's generator goes first next cycle, when it fits
+                worldRotation.addFirst(worldQueue);
+                break;
+            }
+
+            boolean stillQueued = !worldQueue.rotation.isEmpty();
+            if (stillQueued) {
+                worldRotation.addLast(worldQueue);
+            } else {
+                readyWorlds.remove(worldQueue.world);
+            }
+
+            if (entry == null) {
+                if (stillQueued) {
+                    idleWorlds++;
+                }
+                continue;
+            }
+            idleWorlds = 0;
+
+            Generator generator = entry.generator;
+            budget.spend(generator.getWorldName(), generator.getOwner(), entry.cost);
+            due.add(generator);
+        }
+
+        budget.setWaiting(readyCount);
+        return due;
+    }
+
+    private void enqueueReady(Entry entry) {
+        entry.ready = true;
+        readyCount++;
+
+        Generator generator = entry.generator;
+        WorldQueue worldQueue = readyWorlds.get(generator.getWorldName());
+        if (worldQueue == null) {
+            worldQueue = new WorldQueue(generator.getWorldName());
+            readyWorlds.put(worldQueue.world, worldQueue);
+            worldRotation.addLast(worldQueue);
+        }
+
+        OwnerQueue ownerQueue = worldQueue.owners.get(generator.getOwner());
+        if (ownerQueue == null) {
+            ownerQueue = new OwnerQueue(generator.getOwner());
+            worldQueue.owners.put(ownerQueue.owner, ownerQueue);
+            worldQueue.rotation.addLast(ownerQueue);
+        }
+        ownerQueue.entries.addLast(entry);
+    }
+
+    // An owner whose next generator doesn't fit the world's remaining budget
+    // stays at the front, so it isn't passed over for cheaper ones every cycle
+    private Entry pollReady(WorldQueue worldQueue, SpawnBudget budget, ToIntFunction<Generator> cost,
+                            boolean ownerLimits) {
+        if (budget.isWorldExhausted(worldQueue.world)) {
+            return null;
+        }
+
+        int owners = worldQueue.rotation.size();
+        for (int i = 0; i < owners; i++) {
+            OwnerQueue ownerQueue = worldQueue.rotation.pollFirst();
+            Entry entry = ownerQueue.entries.peekFirst();
+            while (entry != null && entry.cancelled) {
+                ownerQueue.entries.pollFirst();
+                entry = ownerQueue.entries.peekFirst();
+            }
+            if (entry == null) {
+                worldQueue.owners.remove(ownerQueue.owner);
+                continue;
+            }
+
+            int items = cost.applyAsInt(entry.generator);
+            if (items > budget.getRemaining()) {
+                worldQueue.rotation.addFirst(ownerQueue);
+                return OUT_OF_BUDGET;
+            }
+            if (items > budget.getWorldRemaining(worldQueue.world)) {
+                worldQueue.rotation.addFirst(ownerQueue);
+                return null;
+            }
+            if (ownerLimits && items > budget.getOwnerRemaining(ownerQueue.owner)) {
+                worldQueue.rotation.addLast(ownerQueue);
+                continue;
+            }
+
+            ownerQueue.entries.pollFirst();
+            if (ownerQueue.entries.isEmpty()) {
+                worldQueue.owners.remove(ownerQueue.owner);
+            } else {
+                worldQueue.rotation.addLast(ownerQueue);
+            }
+
+            entries.remove(entry.generator.getId());
+            readyCount--;
+            entry.cost = items;
+            return entry;
+        }
+        return null;
+    }
+
+    public synchronized int size() {
+        return size + readyCount;
+    }
+
+    public synchronized int getReadyCount() {
+        return readyCount;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(heap, 0, size, null);
+        entries.clear();
+        readyWorlds.clear();
+        worldRotation.clear();
+        size = 0;
+        readyCount = 0;
+    }
+
+    private void removeAt(int index) {
+        Entry last = heap[--size];
+        heap[size] = null;
+        if (index == size) {
+            return;
+        }
+        heap[index] = last;
+        last.index = index;
+        siftDown(index);
+        siftUp(last.index);
+    }
+
+    private void siftUp(int index) {
+        Entry entry = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            Entry parentEntry = heap[parent];
+            if (parentEntry.dueAt <= entry.dueAt) {
+                break;
+            }
+            heap[index] = parentEntry;
+            parentEntry.index = index;
+            index = parent;
+        }
+        heap[index] = entry;
+        entry.index = index;
+    }
+
+    private void siftDown(int index) {
+        Entry entry = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if (right < size && heap[right].dueAt < heap[child].dueAt) {
+                child = right;
+            }
+            if (entry.dueAt <= heap[child].dueAt) {
+                break;
+            }
+            heap[index] = heap[child];
+            heap[index].index = index;
+            index = child;
+        }
+        heap[index] = entry;
+        entry.index = index;
+    }
+}
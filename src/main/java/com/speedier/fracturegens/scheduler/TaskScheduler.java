@@ -0,0 +1,37 @@
+package com.speedier.fracturegens.scheduler;
+
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Where the plugin's work runs. On a regular server everything that touches
+ * the world runs on the main thread. On a region-threaded server (Folia) there
+ * is no main thread: global work runs on the global region thread and world
+ * work has to run on the thread of the region that owns the chunk.
+ */
+public interface TaskScheduler {
+    interface Task {
+        void cancel();
+    }
+
+    static TaskScheduler create(Plugin plugin) {
+        return RegionTaskScheduler.isSupported() ? new RegionTaskScheduler(plugin) : new BukkitTaskScheduler(plugin);
+    }
+
+    // Global work: the main thread, or the global region thread
+    Task runTimer(Runnable task, long delayTicks, long periodTicks);
+
+    Task runLater(Runnable task, long delayTicks);
+
+    void run(Runnable task);
+
+    void runAsync(Runnable task);
+
+    Task runAsyncTimer(Runnable task, long delayTicks, long periodTicks);
+
+    // On the thread that owns the chunk; on a regular server that is the main
+    // thread. A caller already on the owning thread runs the task immediately
+    void runAtChunk(World world, int chunkX, int chunkZ, Runnable task);
+
+    boolean isRegionThreaded();
+}
@@ -0,0 +1,297 @@
+package com.speedier.fracturegens.storage;
+
+import com.speedier.fracturegens.models.Generator;
+import com.speedier.fracturegens.models.GeneratorConfig;
+import com.speedier.fracturegens.models.LootTable;
+import com.speedier.fracturegens.utils.LocationKeys;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * Binary snapshot layout (big-endian):
+ * <pre>
+ * header    int magic "FGEN", short version, short record size,
+ *           int world count, int template count, int record count, int pool size
+ * worlds    per world: int length, UTF-8 name
+ * templates per item: byte kind, int amount, int length, data
+ *           (kind 0: material name; kind 1: YAML of the serialized item)
+ * records   fixed width, see RECORD_SIZE
+ *           (before version 3 there is no output mode; those load as DROP)
+ * pool      per generator item: int template index, int weight
+ *           (version 1 files have no weight; those items load with weight 1)
+ * </pre>
+ * Distinct items are stored once and deserialized once; generators share the
+ * resulting ItemStacks, which they only ever clone.
+ */
+public class BinarySnapshotCodec implements SnapshotCodec {
+    private static final int MAGIC = 0x4647454E;
+    private static final short VERSION = 3;
+    private static final int HEADER_SIZE = 24;
+    private static final byte TEMPLATE_MATERIAL = 0;
+    private static final byte TEMPLATE_YAML = 1;
+    // id(16) world(4) packed block(8) owner(16) rate(4) direction(1) enabled(1)
+    // production time(8) pending output(8) pool offset(4) item count(4) output mode(1)
+    private static final short RECORD_SIZE = 75;
+    private static final short VERSION_2_RECORD_SIZE = 74;
+    private static final int DECODE_BATCH_SIZE = 4096;
+    private static final Generator.SpawnDirection[] DIRECTIONS = Generator.SpawnDirection.values();
+    private static final Generator.OutputMode[] OUTPUT_MODES = Generator.OutputMode.values();
+
+    private final Logger logger;
+
+    public BinarySnapshotCodec(Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public String getFileName() {
+        return "generators.dat";
+    }
+
+    @Override
+    public byte[] encode(List<GeneratorRecord> records) throws IOException {
+        Map<String, Integer> worlds = new LinkedHashMap<>();
+        Map<String, Integer> templateIds = new HashMap<>();
+        List<byte[]> templates = new ArrayList<>();
+        int[][] itemIndexes = new int[records.size()][];
+        int poolSize = 0;
+
+        for (int i = 0; i < records.size(); i++) {
+            GeneratorRecord record = records.get(i);
+            worlds.putIfAbsent(record.getWorldName(), worlds.size());
+
+            List<ItemStack> items = record.getItems();
+            int[] indexes = new int[items.size()];
+            for (int j = 0; j < items.size(); j++) {
+                ItemStack item = items.get(j);
+                String key = templateKey(item);
+                Integer templateId = templateIds.get(key);
+                if (templateId == null) {
+                    templateId = templates.size();
+                    templateIds.put(key, templateId);
+                    templates.add(encodeTemplate(item));
+                }
+                indexes[j] = templateId;
+            }
+            itemIndexes[i] = indexes;
+            poolSize += indexes.length;
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(HEADER_SIZE + records.size() * (RECORD_SIZE + 16));
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(RECORD_SIZE);
+        out.writeInt(worlds.size());
+        out.writeInt(templates.size());
+        out.writeInt(records.size());
+        out.writeInt(poolSize);
+
+        for (String worldName : worlds.keySet()) {
+            byte[] name = worldName.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(name.length);
+            out.write(name);
+        }
+        for (byte[] template : templates) {
+            out.write(template);
+        }
+
+        int poolOffset = 0;
+        for (int i = 0; i < records.size(); i++) {
+            GeneratorRecord record = records.get(i);
+            out.writeLong(record.getId().getMostSignificantBits());
+            out.writeLong(record.getId().getLeastSignificantBits());
+            out.writeInt(worlds.get(record.getWorldName()));
+            out.writeLong(LocationKeys.blockKey(record.getX(), record.getY(), record.getZ()));
+            out.writeLong(record.getOwner().getMostSignificantBits());
+            out.writeLong(record.getOwner().getLeastSignificantBits());
+            out.writeInt(record.getSpawnRate());
+            out.writeByte(record.getDirection().ordinal());
+            out.writeBoolean(record.isEnabled());
+            out.writeLong(record.getProductionTime());
+            out.writeDouble(record.getPendingOutput());
+            out.writeInt(poolOffset);
+            out.writeInt(itemIndexes[i].length);
+            out.writeByte(record.getOutputMode().ordinal());
+            poolOffset += itemIndexes[i].length;
+        }
+
+        for (int i = 0; i < records.size(); i++) {
+            List<Integer> weights = records.get(i).getLoot().getWeights();
+            for (int j = 0; j < itemIndexes[i].length; j++) {
+                out.writeInt(itemIndexes[i][j]);
+                out.writeInt(weights.get(j));
+            }
+        }
+
+        out.flush();
+        return buffer.toByteArray();
+    }
+
+    @Override
+    public Map<UUID, GeneratorRecord> decode(ByteBuffer content) throws IOException {
+        if (content.remaining() < HEADER_SIZE || content.getInt(content.position()) != MAGIC) {
+            throw new IOException("not a FractureGens binary snapshot");
+        }
+
+        ByteBuffer in = content.slice();
+        in.getInt();
+        short version = in.getShort();
+        if (version > VERSION) {
+            throw new IOException("unsupported snapshot version " + version);
+        }
+        short recordSize = in.getShort();
+        if (recordSize < (version >= 3 ? RECORD_SIZE : VERSION_2_RECORD_SIZE)) {
+            throw new IOException("unsupported record size " + recordSize);
+        }
+        int worldCount = in.getInt();
+        int templateCount = in.getInt();
+        int recordCount = in.getInt();
+        int poolSize = in.getInt();
+
+        String[] worlds = new String[worldCount];
+        for (int i = 0; i < worldCount; i++) {
+            worlds[i] = readString(in);
+        }
+
+        ItemStack[] templates = new ItemStack[templateCount];
+        for (int i = 0; i < templateCount; i++) {
+            templates[i] = decodeTemplate(in);
+        }
+
+        int poolEntrySize = version >= 2 ? 8 : 4;
+        boolean hasOutputMode = version >= 3;
+        int recordsStart = in.position();
+        int poolStart = recordsStart + recordCount * recordSize;
+        if (poolStart + (long) poolSize * poolEntrySize != in.limit()) {
+            throw new IOException("snapshot size does not match its header");
+        }
+
+        // Records are fixed width, so ranges decode independently; each task
+        // reads through its own view of the buffer.
+        GeneratorRecord[] decoded = new GeneratorRecord[recordCount];
+        int batches = (recordCount + DECODE_BATCH_SIZE - 1) / DECODE_BATCH_SIZE;
+        IntStream.range(0, batches).parallel().forEach(batch -> {
+            ByteBuffer view = in.duplicate();
+            int end = Math.min(recordCount, (batch + 1) * DECODE_BATCH_SIZE);
+            for (int i = batch * DECODE_BATCH_SIZE; i < end; i++) {
+                decoded[i] = decodeRecord(view, recordsStart + i * recordSize, poolStart, poolEntrySize,
+                        hasOutputMode, templates, worlds);
+            }
+        });
+
+        Map<UUID, GeneratorRecord> records = new LinkedHashMap<>(Math.max(16, (int) (recordCount / 0.75f) + 1));
+        for (GeneratorRecord record : decoded) {
+            records.put(record.getId(), record);
+        }
+        return records;
+    }
+
+    private static GeneratorRecord decodeRecord(ByteBuffer in, int base, int poolStart, int poolEntrySize,
+                                                boolean hasOutputMode, ItemStack[] templates, String[] worlds) {
+        UUID id = new UUID(in.getLong(base), in.getLong(base + 8));
+        String worldName = worlds[in.getInt(base + 16)];
+        long blockKey = in.getLong(base + 20);
+        UUID owner = new UUID(in.getLong(base + 28), in.getLong(base + 36));
+        int spawnRate = in.getInt(base + 44);
+        Generator.SpawnDirection direction = getDirection(in.get(base + 48));
+        boolean enabled = in.get(base + 49) != 0;
+        long productionTime = in.getLong(base + 50);
+        double pendingOutput = in.getDouble(base + 58);
+        int poolOffset = in.getInt(base + 66);
+        int itemCount = in.getInt(base + 70);
+        Generator.OutputMode outputMode = hasOutputMode ? getOutputMode(in.get(base + 74)) : Generator.OutputMode.DROP;
+
+        List<ItemStack> items = new ArrayList<>(itemCount);
+        List<Integer> weights = new ArrayList<>(itemCount);
+        for (int j = 0; j < itemCount; j++) {
+            int entry = poolStart + (poolOffset + j) * poolEntrySize;
+            ItemStack template = templates[in.getInt(entry)];
+            if (template != null) {
+                items.add(template);
+                weights.add(poolEntrySize == 8 ? in.getInt(entry + 4) : 1);
+            }
+        }
+        LootTable loot = items.isEmpty() ? LootTable.DEFAULT : new LootTable(items, weights);
+
+        return new GeneratorRecord(id, worldName,
+                LocationKeys.blockX(blockKey), LocationKeys.blockY(blockKey), LocationKeys.blockZ(blockKey),
+                owner, new GeneratorConfig(loot, spawnRate, direction, outputMode, enabled),
+                productionTime, pendingOutput);
+    }
+
+    private static Generator.SpawnDirection getDirection(int ordinal) {
+        return ordinal >= 0 && ordinal < DIRECTIONS.length ? DIRECTIONS[ordinal] : Generator.SpawnDirection.TOP;
+    }
+
+    private static Generator.OutputMode getOutputMode(int ordinal) {
+        return ordinal >= 0 && ordinal < OUTPUT_MODES.length ? OUTPUT_MODES[ordinal] : Generator.OutputMode.DROP;
+    }
+
+    private static String templateKey(ItemStack item) {
+        if (!item.hasItemMeta()) {
+            return item.getType().name() + ":" + item.getAmount();
+        }
+        return new String(ItemSerialization.toYaml(Collections.singletonList(item)), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encodeTemplate(ItemStack item) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        byte[] data;
+        if (!item.hasItemMeta()) {
+            out.writeByte(TEMPLATE_MATERIAL);
+            data = item.getType().name().getBytes(StandardCharsets.UTF_8);
+        } else {
+            out.writeByte(TEMPLATE_YAML);
+            data = ItemSerialization.toYaml(Collections.singletonList(item));
+        }
+        out.writeInt(item.getAmount());
+        out.writeInt(data.length);
+        out.write(data);
+        out.flush();
+        return buffer.toByteArray();
+    }
+
+    private ItemStack decodeTemplate(ByteBuffer in) throws IOException {
+        byte kind = in.get();
+        int amount = in.getInt();
+        byte[] data = new byte[in.getInt()];
+        in.get(data);
+
+        if (kind == TEMPLATE_MATERIAL) {
+            String name = new String(data, StandardCharsets.UTF_8);
+            Material material = Material.getMaterial(name);
+            if (material == null) {
+                logger.warning("Failed to deserialize item: unknown material " + name);
+                return null;
+            }
+            return new ItemStack(material, amount);
+        }
+        if (kind == TEMPLATE_YAML) {
+            return ItemSerialization.fromYaml(data, logger).get(0);
+        }
+        throw new IOException("unknown item template kind " + kind);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] data = new byte[in.getInt()];
+        in.get(data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,504 @@
+package com.speedier.fracturegens.storage;
+
+import com.speedier.fracturegens.models.Generator;
+import com.speedier.fracturegens.models.GeneratorConfig;
+import com.speedier.fracturegens.models.LootTable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Generator persistence as a snapshot (YAML or binary, see {@link SnapshotCodec})
+ * plus an append-only journal of mutations since that snapshot. Each mutation
+ * appends one small CRC-framed record, buffered until the next {@link #flush()};
+ * compaction writes a fresh snapshot and truncates the journal. All file I/O
+ * runs on a single storage thread, in submission order.
+ * <p>
+ * Journal records carry absolute values (set rate, set items, ...), so
+ * replaying a journal over a snapshot that already contains its changes is
+ * harmless if a crash lands between writing the snapshot and truncating.
+ */
+public class FileGeneratorStore implements GeneratorStore {
+    private static final byte OP_CREATE = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final byte OP_SPAWN_RATE = 3;
+    private static final byte OP_ITEMS = 4;
+    private static final byte OP_ENABLED = 5;
+    private static final byte OP_DIRECTION = 6;
+    // Item list and weights together; OP_ITEMS is only read from older journals
+    private static final byte OP_LOOT = 7;
+    private static final byte OP_OUTPUT_MODE = 8;
+
+    private final Logger logger;
+    private final SnapshotCodec codec;
+    private final SnapshotFile snapshotFile;
+    private final SnapshotCodec legacyCodec;
+    private final SnapshotFile legacySnapshotFile;
+    private final File journalFile;
+    private final int compactThreshold;
+    private final ExecutorService executor;
+    private final AtomicBoolean writing = new AtomicBoolean();
+    private DataOutputStream journalOut;
+    private final AtomicInteger journalEntries = new AtomicInteger();
+    private volatile long lastSaveNanos;
+    private volatile long lastSaveBytes;
+    private volatile int lastSaveRecords;
+    private volatile long lastSaveTime;
+    private volatile LongConsumer saveListener = nanos -> { };
+    private volatile boolean migrating;
+    // Set when no snapshot could be read; nothing is written from then on
+    private volatile boolean failed;
+
+    public FileGeneratorStore(File dataFolder, Logger logger, int compactThreshold, boolean binaryFormat) {
+        this.logger = logger;
+        SnapshotCodec yamlCodec = new YamlSnapshotCodec(logger);
+        SnapshotCodec binaryCodec = new BinarySnapshotCodec(logger);
+        this.codec = binaryFormat ? binaryCodec : yamlCodec;
+        this.legacyCodec = binaryFormat ? yamlCodec : binaryCodec;
+        this.snapshotFile = new SnapshotFile(new File(dataFolder, codec.getFileName()), logger);
+        this.legacySnapshotFile = new SnapshotFile(new File(dataFolder, legacyCodec.getFileName()), logger);
+        this.journalFile = new File(dataFolder, "generators.journal");
+        this.compactThreshold = Math.max(1, compactThreshold);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "FractureGens-Storage");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Map<UUID, GeneratorRecord> load() {
+        Map<UUID, GeneratorRecord> records = new LinkedHashMap<>();
+        Map<UUID, GeneratorRecord> snapshot = null;
+        if (snapshotFile.exists()) {
+            snapshot = snapshotFile.load(codec::decode);
+        } else if (legacySnapshotFile.getFile().exists()) {
+            logger.info("Migrating generators from " + legacyCodec.getFileName() + " to " + codec.getFileName());
+            snapshot = legacySnapshotFile.load(legacyCodec::decode);
+            migrating = snapshot != null;
+        }
+
+        if (snapshot != null) {
+            records.putAll(snapshot);
+        } else if (snapshotFile.exists() || legacySnapshotFile.getFile().exists()) {
+            // Starting without them would overwrite them (and rotate the backups
+            // out) on the next save, so the files are left as they are
+            failed = true;
+            executor.shutdown();
+            throw new IllegalStateException("No readable generator snapshot or backup found; restore one or move " +
+                    "the unreadable files out of " + journalFile.getParentFile().getName() + " to start empty");
+        }
+
+        JournalReplay replay = replayJournal(records);
+        if (replay.entries > 0) {
+            logger.info("Replayed " + replay.entries + " generator journal entries");
+        }
+        journalEntries.set(replay.entries);
+        executor.execute(() -> openJournal(replay.validLength));
+        return records;
+    }
+
+    @Override
+    public void insert(GeneratorRecord record) {
+        append(OP_CREATE, record.getId(), out -> writeRecord(out, record));
+    }
+
+    @Override
+    public void delete(UUID id) {
+        append(OP_REMOVE, id, out -> { });
+    }
+
+    @Override
+    public void updateSpawnRate(UUID id, int spawnRate) {
+        append(OP_SPAWN_RATE, id, out -> out.writeInt(spawnRate));
+    }
+
+    @Override
+    public void updateEnabled(UUID id, boolean enabled) {
+        append(OP_ENABLED, id, out -> out.writeBoolean(enabled));
+    }
+
+    @Override
+    public void updateDirection(UUID id, Generator.SpawnDirection direction) {
+        append(OP_DIRECTION, id, out -> out.writeUTF(direction.name()));
+    }
+
+    @Override
+    public void updateOutputMode(UUID id, Generator.OutputMode outputMode) {
+        append(OP_OUTPUT_MODE, id, out -> out.writeUTF(outputMode.name()));
+    }
+
+    @Override
+    public void updateLoot(UUID id, LootTable loot) {
+        append(OP_LOOT, id, out -> writeLoot(out, loot));
+    }
+
+    @Override
+    public boolean needsSnapshot() {
+        return journalEntries.get() >= compactThreshold;
+    }
+
+    public boolean hasData() {
+        return snapshotFile.exists() || legacySnapshotFile.getFile().exists() || journalFile.exists();
+    }
+
+    // Called once another backend has taken over these files, after close().
+    public void markMigrated() {
+        for (File file : new File[] {snapshotFile.getFile(), legacySnapshotFile.getFile(), journalFile}) {
+            if (file.exists() && !file.renameTo(new File(file.getParentFile(), file.getName() + ".migrated"))) {
+                logger.warning("Failed to rename migrated file " + file.getName());
+            }
+        }
+    }
+
+    public void setMaxBackups(int maxBackups) {
+        snapshotFile.setMaxBackups(maxBackups);
+    }
+
+    @Override
+    public boolean isMigrating() {
+        return migrating;
+    }
+
+    @Override
+    public int getPendingChanges() {
+        return journalEntries.get();
+    }
+
+    @Override
+    public void flush() {
+        if (failed) {
+            return;
+        }
+        executor.execute(() -> {
+            if (journalOut == null) {
+                return;
+            }
+            try {
+                journalOut.flush();
+            } catch (IOException e) {
+                logger.severe("Failed to flush generator journal: " + e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public boolean isWriting() {
+        return writing.get();
+    }
+
+    @Override
+    public void snapshot(List<GeneratorRecord> records) {
+        if (failed) {
+            return;
+        }
+        journalEntries.set(0);
+        writing.set(true);
+        executor.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                long written = writeSnapshot(records);
+                if (written > 0) {
+                    lastSaveNanos = System.nanoTime() - start;
+                    lastSaveBytes = written;
+                    lastSaveRecords = records.size();
+                    lastSaveTime = System.currentTimeMillis();
+                    saveListener.accept(lastSaveNanos);
+                }
+            } finally {
+                writing.set(false);
+            }
+        });
+    }
+
+    @Override
+    public long getLastSaveNanos() {
+        return lastSaveNanos;
+    }
+
+    @Override
+    public long getLastSaveBytes() {
+        return lastSaveBytes;
+    }
+
+    @Override
+    public void setSaveListener(LongConsumer listener) {
+        this.saveListener = listener;
+    }
+
+    @Override
+    public long getLastSaveTime() {
+        return lastSaveTime;
+    }
+
+    @Override
+    public int getLastSaveRecords() {
+        return lastSaveRecords;
+    }
+
+    @Override
+    public void close(List<GeneratorRecord> records) {
+        if (failed) {
+            return;
+        }
+        snapshot(records);
+        executor.execute(this::closeJournal);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.severe("Timed out waiting for generator storage to finish writing");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private interface PayloadWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private void append(byte op, UUID id, PayloadWriter payloadWriter) {
+        if (failed) {
+            logger.warning("Generator storage failed to load, not saving the change to " + id);
+            return;
+        }
+        journalEntries.incrementAndGet();
+        executor.execute(() -> {
+            try {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+                DataOutputStream payload = new DataOutputStream(buffer);
+                payload.writeByte(op);
+                payload.writeLong(id.getMostSignificantBits());
+                payload.writeLong(id.getLeastSignificantBits());
+                payloadWriter.write(payload);
+                writeFrame(buffer.toByteArray());
+            } catch (IOException e) {
+                logger.severe("Failed to append to generator journal: " + e.getMessage());
+            }
+        });
+    }
+
+    private void writeFrame(byte[] payload) throws IOException {
+        if (journalOut == null) {
+            openJournal(journalFile.length());
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        journalOut.writeInt(payload.length);
+        journalOut.writeInt((int) crc.getValue());
+        journalOut.write(payload);
+    }
+
+    private void openJournal(long validLength) {
+        try {
+            if (journalFile.exists() && journalFile.length() > validLength) {
+                try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+                    file.setLength(validLength);
+                }
+            }
+            journalFile.getParentFile().mkdirs();
+            journalOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile, true)));
+        } catch (IOException e) {
+            logger.severe("Failed to open generator journal: " + e.getMessage());
+        }
+    }
+
+    private void closeJournal() {
+        if (journalOut == null) {
+            return;
+        }
+        try {
+            journalOut.close();
+        } catch (IOException e) {
+            logger.warning("Failed to close generator journal: " + e.getMessage());
+        }
+        journalOut = null;
+    }
+
+    private long writeSnapshot(List<GeneratorRecord> records) {
+        try {
+            long written = snapshotFile.write(codec.encode(records));
+
+            closeJournal();
+            new FileOutputStream(journalFile, false).close();
+            openJournal(0);
+
+            if (migrating) {
+                File legacyFile = legacySnapshotFile.getFile();
+                if (legacyFile.renameTo(new File(legacyFile.getParentFile(), legacyFile.getName() + ".migrated"))) {
+                    logger.info("Migrated generators to " + codec.getFileName() + ", kept the old file as " +
+                            legacyFile.getName() + ".migrated");
+                }
+                migrating = false;
+            }
+            return written;
+        } catch (IOException e) {
+            logger.severe("Failed to save generators: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private static final class JournalReplay {
+        private long validLength;
+        private int entries;
+    }
+
+    private JournalReplay replayJournal(Map<UUID, GeneratorRecord> records) {
+        JournalReplay replay = new JournalReplay();
+        if (!journalFile.exists()) {
+            return replay;
+        }
+
+        long validLength = 0;
+        int replayed = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+
+                int expectedCrc = in.readInt();
+                if (length <= 0 || length > journalFile.length()) {
+                    logger.warning("Discarding corrupt generator journal tail at byte " + validLength);
+                    break;
+                }
+
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != expectedCrc) {
+                    logger.warning("Discarding corrupt generator journal tail at byte " + validLength);
+                    break;
+                }
+
+                applyEntry(records, payload);
+                validLength += 8 + length;
+                replayed++;
+            }
+        } catch (EOFException e) {
+            logger.warning("Discarding truncated generator journal tail at byte " + validLength);
+        } catch (IOException e) {
+            logger.severe("Failed to replay generator journal: " + e.getMessage());
+        }
+
+        replay.validLength = validLength;
+        replay.entries = replayed;
+        return replay;
+    }
+
+    private void applyEntry(Map<UUID, GeneratorRecord> records, byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte op = in.readByte();
+        UUID id = new UUID(in.readLong(), in.readLong());
+
+        if (op == OP_CREATE) {
+            records.put(id, readRecord(in, id));
+            return;
+        }
+        if (op == OP_REMOVE) {
+            records.remove(id);
+            return;
+        }
+
+        GeneratorRecord record = records.get(id);
+        if (record == null) {
+            return;
+        }
+
+        switch (op) {
+            case OP_SPAWN_RATE:
+                record.setSpawnRate(in.readInt());
+                break;
+            case OP_ENABLED:
+                record.setEnabled(in.readBoolean());
+                break;
+            case OP_DIRECTION:
+                record.setDirection(Generator.SpawnDirection.valueOf(in.readUTF()));
+                break;
+            case OP_OUTPUT_MODE:
+                record.setOutputMode(Generator.OutputMode.valueOf(in.readUTF()));
+                break;
+            case OP_ITEMS:
+            case OP_LOOT:
+                record.setLoot(readLoot(in));
+                break;
+            default:
+                logger.warning("Skipping unknown generator journal entry type " + op);
+                break;
+        }
+    }
+
+    private void writeRecord(DataOutputStream out, GeneratorRecord record) throws IOException {
+        out.writeUTF(record.getWorldName());
+        out.writeInt(record.getX());
+        out.writeInt(record.getY());
+        out.writeInt(record.getZ());
+        out.writeLong(record.getOwner().getMostSignificantBits());
+        out.writeLong(record.getOwner().getLeastSignificantBits());
+        out.writeInt(record.getSpawnRate());
+        out.writeUTF(record.getDirection().name());
+        out.writeBoolean(record.isEnabled());
+        out.writeLong(record.getProductionTime());
+        out.writeDouble(record.getPendingOutput());
+        writeLoot(out, record.getLoot());
+        out.writeUTF(record.getOutputMode().name());
+    }
+
+    private GeneratorRecord readRecord(DataInputStream in, UUID id) throws IOException {
+        String worldName = in.readUTF();
+        int x = in.readInt();
+        int y = in.readInt();
+        int z = in.readInt();
+        UUID owner = new UUID(in.readLong(), in.readLong());
+        int spawnRate = in.readInt();
+        Generator.SpawnDirection direction = Generator.SpawnDirection.valueOf(in.readUTF());
+        boolean enabled = in.readBoolean();
+        long productionTime = in.readLong();
+        double pendingOutput = in.readDouble();
+        LootTable loot = readLoot(in);
+        // Records from older journals end after the loot
+        Generator.OutputMode outputMode = in.available() > 0
+                ? Generator.OutputMode.valueOf(in.readUTF()) : Generator.OutputMode.DROP;
+        return new GeneratorRecord(id, worldName, x, y, z, owner,
+                new GeneratorConfig(loot, spawnRate, direction, outputMode, enabled), productionTime, pendingOutput);
+    }
+
+    private void writeLoot(DataOutputStream out, LootTable loot) throws IOException {
+        byte[] yaml = ItemSerialization.lootToYaml(loot);
+        out.writeInt(yaml.length);
+        out.write(yaml);
+    }
+
+    private LootTable readLoot(DataInputStream in) throws IOException {
+        byte[] yaml = new byte[in.readInt()];
+        in.readFully(yaml);
+        return ItemSerialization.lootFromYaml(yaml, logger);
+    }
+}
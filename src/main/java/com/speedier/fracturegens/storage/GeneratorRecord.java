@@ -0,0 +1,84 @@
+package com.speedier.fracturegens.storage;
+
+import com.speedier.fracturegens.models.Generator;
+import com.speedier.fracturegens.models.GeneratorConfig;
+import com.speedier.fracturegens.models.LootTable;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.List;
+import java.util.UUID;
+
+public class GeneratorRecord {
+    private final UUID id;
+    private final String worldName;
+    private final int x;
+    private final int y;
+    private final int z;
+    private final UUID owner;
+    private GeneratorConfig config;
+    private long productionTime;
+    private double pendingOutput;
+
+    public GeneratorRecord(UUID id, String worldName, int x, int y, int z, UUID owner, LootTable loot,
+                           int spawnRate, Generator.SpawnDirection direction, boolean enabled,
+                           long productionTime, double pendingOutput) {
+        this(id, worldName, x, y, z, owner, new GeneratorConfig(loot, spawnRate, direction, enabled),
+                productionTime, pendingOutput);
+    }
+
+    public GeneratorRecord(UUID id, String worldName, int x, int y, int z, UUID owner, GeneratorConfig config,
+                           long productionTime, double pendingOutput) {
+        this.id = id;
+        this.worldName = worldName;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.owner = owner;
+        this.config = config;
+        this.productionTime = productionTime;
+        this.pendingOutput = pendingOutput;
+    }
+
+    public static GeneratorRecord of(Generator generator) {
+        return new GeneratorRecord(generator.getId(), generator.getWorldName(),
+                generator.getBlockX(), generator.getBlockY(), generator.getBlockZ(), generator.getOwner(),
+                generator.getConfig(), generator.getProductionTime(), generator.getPendingOutput());
+    }
+
+    // Production up to now, read without advancing the generator itself, which
+    // may be producing on another thread
+    public static GeneratorRecord of(Generator generator, long now) {
+        return new GeneratorRecord(generator.getId(), generator.getWorldName(),
+                generator.getBlockX(), generator.getBlockY(), generator.getBlockZ(), generator.getOwner(),
+                generator.getConfig(), Math.max(generator.getProductionTime(), now), generator.getPendingOutput(now));
+    }
+
+    public Generator toGenerator(World world) {
+        Generator generator = new Generator(id, new Location(world, x, y, z), owner, config);
+        generator.restoreProduction(productionTime, pendingOutput);
+        return generator;
+    }
+
+    public UUID getId() { return id; }
+    public String getWorldName() { return worldName; }
+    public int getX() { return x; }
+    public int getY() { return y; }
+    public int getZ() { return z; }
+    public UUID getOwner() { return owner; }
+    public GeneratorConfig getConfig() { return config; }
+    public List<ItemStack> getItems() { return config.getItems(); }
+    public LootTable getLoot() { return config.getLoot(); }
+    public void setLoot(LootTable loot) { config = config.withLoot(loot); }
+    public int getSpawnRate() { return config.getSpawnRate(); }
+    public void setSpawnRate(int spawnRate) { config = config.withSpawnRate(spawnRate); }
+    public Generator.SpawnDirection getDirection() { return config.getDirection(); }
+    public void setDirection(Generator.SpawnDirection direction) { config = config.withDirection(direction); }
+    public Generator.OutputMode getOutputMode() { return config.getOutputMode(); }
+    public void setOutputMode(Generator.OutputMode outputMode) { config = config.withOutputMode(outputMode); }
+    public boolean isEnabled() { return config.isEnabled(); }
+    public void setEnabled(boolean enabled) { config = config.withEnabled(enabled); }
+    public long getProductionTime() { return productionTime; }
+    public double getPendingOutput() { return pendingOutput; }
+}
@@ -0,0 +1,62 @@
+package com.speedier.fracturegens.storage;
+
+import com.speedier.fracturegens.models.Generator;
+import com.speedier.fracturegens.models.LootTable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+
+/**
+ * Persistence backend for generators. Mutation methods only queue work and
+ * may be called from any thread (region-threaded servers change generators on
+ * several); implementations do their I/O on their own thread, in call order.
+ * {@link #snapshot} persists the full state, including production progress
+ * that individual mutations don't record.
+ */
+public interface GeneratorStore {
+    // Throws IllegalStateException when stored data exists but can't be read;
+    // the store then writes nothing, so the data stays as it was
+    Map<UUID, GeneratorRecord> load();
+
+    void insert(GeneratorRecord record);
+
+    void delete(UUID id);
+
+    void updateSpawnRate(UUID id, int spawnRate);
+
+    void updateEnabled(UUID id, boolean enabled);
+
+    void updateDirection(UUID id, Generator.SpawnDirection direction);
+
+    void updateOutputMode(UUID id, Generator.OutputMode outputMode);
+
+    void updateLoot(UUID id, LootTable loot);
+
+    void flush();
+
+    boolean needsSnapshot();
+
+    void snapshot(List<GeneratorRecord> records);
+
+    boolean isWriting();
+
+    boolean isMigrating();
+
+    void close(List<GeneratorRecord> records);
+
+    int getPendingChanges();
+
+    long getLastSaveNanos();
+
+    long getLastSaveTime();
+
+    int getLastSaveRecords();
+
+    // -1 when the backend can't tell
+    long getLastSaveBytes();
+
+    // Called on the storage thread with the duration of each completed snapshot
+    void setSaveListener(LongConsumer listener);
+}
@@ -0,0 +1,90 @@
+package com.speedier.fracturegens.storage;
+
+import com.speedier.fracturegens.models.LootTable;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+final class ItemSerialization {
+    private ItemSerialization() {
+    }
+
+    static List<Map<String, Object>> serialize(List<ItemStack> items) {
+        List<Map<String, Object>> itemMaps = new ArrayList<>();
+        for (ItemStack item : items) {
+            itemMaps.add(item.serialize());
+        }
+        return itemMaps;
+    }
+
+    static List<ItemStack> deserialize(List<?> itemMaps, Logger logger) {
+        return deserializeLoot(itemMaps, null, logger).getItems();
+    }
+
+    // Weights are kept parallel to the items; an item that fails to load takes
+    // its weight with it, and data saved before weights existed loads uniform.
+    @SuppressWarnings("unchecked")
+    static LootTable deserializeLoot(List<?> itemMaps, List<?> weights, Logger logger) {
+        List<ItemStack> items = new ArrayList<>();
+        List<Integer> itemWeights = new ArrayList<>();
+        if (itemMaps != null) {
+            for (int i = 0; i < itemMaps.size(); i++) {
+                Object itemMap = itemMaps.get(i);
+                if (itemMap instanceof Map) {
+                    try {
+                        items.add(ItemStack.deserialize((Map<String, Object>) itemMap));
+                        Object weight = weights != null && i < weights.size() ? weights.get(i) : null;
+                        itemWeights.add(weight instanceof Number ? ((Number) weight).intValue() : 1);
+                    } catch (Exception e) {
+                        logger.warning("Failed to deserialize item: " + e.getMessage());
+                    }
+                }
+            }
+        }
+
+        if (items.isEmpty()) {
+            return LootTable.DEFAULT;
+        }
+        return new LootTable(items, itemWeights);
+    }
+
+    static byte[] toYaml(List<ItemStack> items) {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("items", serialize(items));
+        return config.saveToString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static List<ItemStack> fromYaml(byte[] yaml, Logger logger) throws IOException {
+        YamlConfiguration config = new YamlConfiguration();
+        try {
+            config.loadFromString(new String(yaml, StandardCharsets.UTF_8));
+        } catch (InvalidConfigurationException e) {
+            throw new IOException("Invalid item data: " + e.getMessage(), e);
+        }
+        return deserialize(config.getList("items"), logger);
+    }
+
+    static byte[] lootToYaml(LootTable loot) {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("items", serialize(loot.getItems()));
+        config.set("weights", loot.getWeights());
+        return config.saveToString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static LootTable lootFromYaml(byte[] yaml, Logger logger) throws IOException {
+        YamlConfiguration config = new YamlConfiguration();
+        try {
+            config.loadFromString(new String(yaml, StandardCharsets.UTF_8));
+        } catch (InvalidConfigurationException e) {
+            throw new IOException("Invalid item data: " + e.getMessage(), e);
+        }
+        return deserializeLoot(config.getList("items"), config.getList("weights"), logger);
+    }
+}
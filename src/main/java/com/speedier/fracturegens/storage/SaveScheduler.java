@@ -0,0 +1,103 @@
+package com.speedier.fracturegens.storage;
+
+import com.speedier.fracturegens.scheduler.TaskScheduler;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Single writer for generator saves. Mutations only mark state dirty; once a
+ * second queued changes are flushed and, when a snapshot is due (auto-save
+ * interval, store request or an explicit request), one snapshot is captured and
+ * handed to the storage thread. While a snapshot is still being written no new
+ * one is started, so bursts of changes coalesce into the next write. The
+ * snapshot supplier returns null when nothing may be written (the stored data
+ * couldn't be read); then no snapshot is taken and the store isn't closed
+ * with one.
+ */
+public class SaveScheduler {
+    private static final long CHECK_INTERVAL_TICKS = 20L;
+
+    private final TaskScheduler taskScheduler;
+    private final GeneratorStore storage;
+    private final Supplier<List<GeneratorRecord>> snapshot;
+    private TaskScheduler.Task task;
+    private long autoSaveMillis;
+    private long nextAutoSave;
+    // Set from whichever thread made the change
+    private volatile boolean changesPending;
+    private volatile boolean saveRequested;
+    private long deferredSaves;
+
+    public SaveScheduler(TaskScheduler taskScheduler, GeneratorStore storage,
+                         Supplier<List<GeneratorRecord>> snapshot) {
+        this.taskScheduler = taskScheduler;
+        this.storage = storage;
+        this.snapshot = snapshot;
+    }
+
+    public void start(long autoSaveMinutes) {
+        stop();
+        autoSaveMillis = Math.max(0, autoSaveMinutes) * 60000L;
+        nextAutoSave = System.currentTimeMillis() + autoSaveMillis;
+
+        task = taskScheduler.runTimer(this::tick, CHECK_INTERVAL_TICKS, CHECK_INTERVAL_TICKS);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    public void markDirty() {
+        changesPending = true;
+        if (storage.needsSnapshot()) {
+            saveRequested = true;
+        }
+    }
+
+    public void requestSave() {
+        saveRequested = true;
+    }
+
+    // Flags are cleared before the work they trigger, so a change made while
+    // it runs marks them again instead of being lost
+    private void tick() {
+        if (changesPending) {
+            changesPending = false;
+            storage.flush();
+        }
+
+        long now = System.currentTimeMillis();
+        boolean autoSaveDue = autoSaveMillis > 0 && now >= nextAutoSave;
+        if (!saveRequested && !autoSaveDue) {
+            return;
+        }
+
+        if (storage.isWriting()) {
+            deferredSaves++;
+            return;
+        }
+
+        saveRequested = false;
+        List<GeneratorRecord> records = snapshot.get();
+        if (records != null) {
+            storage.snapshot(records);
+        }
+        nextAutoSave = now + autoSaveMillis;
+    }
+
+    public void shutdown() {
+        stop();
+        List<GeneratorRecord> records = snapshot.get();
+        if (records != null) {
+            storage.close(records);
+        }
+    }
+
+    public long getDeferredSaves() {
+        return deferredSaves;
+    }
+}
@@ -0,0 +1,15 @@
+package com.speedier.fracturegens.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public interface SnapshotCodec {
+    String getFileName();
+
+    byte[] encode(List<GeneratorRecord> records) throws IOException;
+
+    Map<UUID, GeneratorRecord> decode(ByteBuffer content) throws Exception;
+}
@@ -0,0 +1,246 @@
+package com.speedier.fracturegens.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * A snapshot file that is replaced atomically: the new content is written to
+ * a temp file with a checksum footer, fsynced and renamed over the old one, so
+ * a crash leaves either the old or the new snapshot, never half of one. The
+ * previous snapshot is kept in a rotating set of backups, and loading falls
+ * back to the newest backup that passes its checksum; the unreadable file is
+ * then kept as {@code .corrupt}. Files are read into one heap buffer with a
+ * single channel read and closed before parsing; a memory mapping would keep
+ * the file open until garbage collection, which blocks the rename on Windows.
+ */
+public class SnapshotFile {
+    private static final String FOOTER_PREFIX = "\n# fracturegens-checksum: ";
+    private static final int MAX_FOOTER_LENGTH = 96;
+
+    private final Logger logger;
+    private final File file;
+    private final File backupFolder;
+    private volatile int maxBackups;
+
+    public interface Parser<T> {
+        T parse(ByteBuffer content) throws Exception;
+    }
+
+    public SnapshotFile(File file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+        this.backupFolder = new File(file.getParentFile(), "backups");
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public void setMaxBackups(int maxBackups) {
+        this.maxBackups = Math.max(0, maxBackups);
+    }
+
+    public boolean exists() {
+        return file.exists() || !listBackups().isEmpty();
+    }
+
+    public long write(byte[] content) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        byte[] footer = String.format("%s%08x %d\n", FOOTER_PREFIX, crc.getValue(), content.length)
+                .getBytes(StandardCharsets.US_ASCII);
+
+        file.getParentFile().mkdirs();
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(file.getName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer[] buffers = {ByteBuffer.wrap(content), ByteBuffer.wrap(footer)};
+            while (buffers[1].hasRemaining()) {
+                channel.write(buffers);
+            }
+            channel.force(true);
+        }
+
+        if (maxBackups > 0 && file.exists()) {
+            backupCurrent();
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory(target.getParent());
+        return content.length + footer.length;
+    }
+
+    public <T> T load(Parser<T> parser) {
+        List<File> candidates = new ArrayList<>();
+        if (file.exists()) {
+            candidates.add(file);
+        }
+        candidates.addAll(listBackups());
+
+        for (File candidate : candidates) {
+            try {
+                T result = parser.parse(read(candidate));
+                if (candidate != file) {
+                    logger.warning("Loaded generators from backup " + candidate.getName() +
+                            " because " + file.getName() + " is missing or corrupt");
+                    setAsideCorrupt();
+                }
+                return result;
+            } catch (Exception e) {
+                logger.severe("Failed to load " + candidate.getName() + ": " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    // The next write would otherwise back up the unreadable file and rotate a
+    // good backup out
+    private void setAsideCorrupt() {
+        if (!file.exists()) {
+            return;
+        }
+        File corrupt = new File(file.getParentFile(), file.getName() + ".corrupt");
+        try {
+            Files.move(file.toPath(), corrupt.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            logger.warning("Kept the unreadable " + file.getName() + " as " + corrupt.getName());
+        } catch (IOException e) {
+            logger.warning("Failed to set aside " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private ByteBuffer read(File source) throws IOException {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("file too large (" + size + " bytes)");
+            }
+            data = ByteBuffer.allocate((int) size);
+            while (data.hasRemaining()) {
+                if (channel.read(data) < 0) {
+                    throw new IOException("file shrank while it was read");
+                }
+            }
+            data.flip();
+        }
+
+        int footerStart = findFooter(data);
+        if (footerStart < 0) {
+            // Written before checksums were added; let the parser judge it.
+            return data;
+        }
+
+        byte[] footerBytes = new byte[data.limit() - footerStart - FOOTER_PREFIX.length()];
+        data.get(footerStart + FOOTER_PREFIX.length(), footerBytes);
+        String[] parts = new String(footerBytes, StandardCharsets.US_ASCII).trim().split(" ");
+        if (parts.length != 2) {
+            throw new IOException("malformed checksum footer");
+        }
+
+        long expectedCrc;
+        int expectedLength;
+        try {
+            expectedCrc = Long.parseLong(parts[0], 16);
+            expectedLength = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            throw new IOException("malformed checksum footer");
+        }
+
+        if (expectedLength != footerStart) {
+            throw new IOException("length mismatch (expected " + expectedLength + ", found " + footerStart + ")");
+        }
+        ByteBuffer content = data.slice(0, footerStart);
+        CRC32 crc = new CRC32();
+        crc.update(content.duplicate());
+        if (crc.getValue() != expectedCrc) {
+            throw new IOException("checksum mismatch");
+        }
+        return content;
+    }
+
+    private static int findFooter(ByteBuffer data) {
+        byte[] prefix = FOOTER_PREFIX.getBytes(StandardCharsets.US_ASCII);
+        int lowest = Math.max(0, data.limit() - MAX_FOOTER_LENGTH);
+        for (int start = data.limit() - prefix.length; start >= lowest; start--) {
+            boolean match = true;
+            for (int i = 0; i < prefix.length; i++) {
+                if (data.get(start + i) != prefix[i]) {
+                    match = false;
+                    break;
+                }
+            }
+            if (match) {
+                return start;
+            }
+        }
+        return -1;
+    }
+
+    private void backupCurrent() {
+        try {
+            backupFolder.mkdirs();
+            String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date());
+            File backup = new File(backupFolder, stripExtension(file.getName()) + "-" + stamp + getExtension(file.getName()));
+            Files.copy(file.toPath(), backup.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+            List<File> backups = listBackups();
+            for (int i = maxBackups; i < backups.size(); i++) {
+                Files.deleteIfExists(backups.get(i).toPath());
+            }
+        } catch (IOException e) {
+            logger.warning("Failed to back up " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private List<File> listBackups() {
+        String prefix = stripExtension(file.getName()) + "-";
+        String extension = getExtension(file.getName());
+        File[] files = backupFolder.listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(extension));
+        List<File> backups = new ArrayList<>();
+        if (files != null) {
+            backups.addAll(Arrays.asList(files));
+        }
+        // Timestamps sort lexically, newest first.
+        backups.sort(Comparator.comparing(File::getName).reversed());
+        return backups;
+    }
+
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform; the rename itself is still atomic.
+        }
+    }
+
+    private static String stripExtension(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? name : name.substring(0, dot);
+    }
+
+    private static String getExtension(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot);
+    }
+}
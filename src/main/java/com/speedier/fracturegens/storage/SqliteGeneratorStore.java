@@ -0,0 +1,494 @@
+package com.speedier.fracturegens.storage;
+
+import com.speedier.fracturegens.models.Generator;
+import com.speedier.fracturegens.models.GeneratorConfig;
+import com.speedier.fracturegens.models.LootTable;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+import java.util.logging.Logger;
+
+/**
+ * Generators stored as rows in an embedded SQLite database (the driver ships
+ * with Spigot). Each change becomes one row write; changes are queued on the
+ * main thread and committed together, as batched prepared statements in one
+ * transaction, on the storage thread at every {@link #flush()}. Snapshots only
+ * update the rows whose production state changed since it was last written.
+ */
+public class SqliteGeneratorStore implements GeneratorStore {
+    private static final String UPSERT = "INSERT INTO generators (id, world, x, y, z, chunk_x, chunk_z, owner, " +
+            "spawn_rate, direction, enabled, production_time, pending_output, items, output_mode) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT(id) DO UPDATE SET " +
+            "spawn_rate = excluded.spawn_rate, direction = excluded.direction, enabled = excluded.enabled, " +
+            "production_time = excluded.production_time, pending_output = excluded.pending_output, " +
+            "items = excluded.items, output_mode = excluded.output_mode";
+    private static final String DELETE = "DELETE FROM generators WHERE id = ?";
+    private static final String UPDATE_SPAWN_RATE = "UPDATE generators SET spawn_rate = ? WHERE id = ?";
+    private static final String UPDATE_ENABLED = "UPDATE generators SET enabled = ? WHERE id = ?";
+    private static final String UPDATE_DIRECTION = "UPDATE generators SET direction = ? WHERE id = ?";
+    private static final String UPDATE_OUTPUT_MODE = "UPDATE generators SET output_mode = ? WHERE id = ?";
+    private static final String UPDATE_ITEMS = "UPDATE generators SET items = ? WHERE id = ?";
+    private static final String UPDATE_PRODUCTION =
+            "UPDATE generators SET production_time = ?, pending_output = ? WHERE id = ?";
+    private static final String SELECT = "SELECT id, world, x, y, z, owner, spawn_rate, direction, enabled, " +
+            "production_time, pending_output, items, output_mode FROM generators";
+
+    private static final String DATABASE_NAME = "generators.db";
+
+    private final Logger logger;
+    private final String url;
+    private final File dataFolder;
+    private final FileGeneratorStore legacyStore;
+    private final ExecutorService executor;
+    private final AtomicBoolean writing = new AtomicBoolean();
+    private List<PendingWrite> pending = new ArrayList<>();
+    private Connection connection;
+    private volatile boolean migrating;
+    // Set when the database couldn't be opened; changes are refused from then on
+    private volatile boolean failed;
+    private volatile long lastSaveNanos;
+    private volatile long lastSaveTime;
+    private volatile LongConsumer saveListener = nanos -> { };
+    private volatile int lastSaveRecords;
+    // Production state as last written, per generator; only touched on the storage thread
+    private final Map<UUID, Production> written = new HashMap<>();
+
+    private record Production(long productionTime, double pendingOutput) {
+        private static Production of(GeneratorRecord record) {
+            return new Production(record.getProductionTime(), record.getPendingOutput());
+        }
+    }
+
+    private interface Binder {
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+
+    private static final class PendingWrite {
+        private final String sql;
+        private final Binder binder;
+
+        private PendingWrite(String sql, Binder binder) {
+            this.sql = sql;
+            this.binder = binder;
+        }
+    }
+
+    public SqliteGeneratorStore(File dataFolder, Logger logger, FileGeneratorStore legacyStore) {
+        this("jdbc:sqlite:" + new File(dataFolder, DATABASE_NAME).getAbsolutePath(), dataFolder, logger, legacyStore);
+    }
+
+    // Tests open an in-memory database
+    SqliteGeneratorStore(String url, File dataFolder, Logger logger, FileGeneratorStore legacyStore) {
+        this.logger = logger;
+        this.url = url;
+        this.dataFolder = dataFolder;
+        this.legacyStore = legacyStore;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "FractureGens-Storage");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static boolean isDriverAvailable() {
+        try {
+            Class.forName("org.sqlite.JDBC");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Map<UUID, GeneratorRecord> load() {
+        try {
+            return CompletableFuture.supplyAsync(this::open, executor).join();
+        } catch (CompletionException e) {
+            failed = true;
+            executor.execute(this::closeConnection);
+            executor.shutdown();
+            throw new IllegalStateException("Failed to load generators from " + DATABASE_NAME + ": " +
+                    e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private Map<UUID, GeneratorRecord> open() {
+        try {
+            dataFolder.mkdirs();
+            connection = DriverManager.getConnection(url);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("PRAGMA synchronous=NORMAL");
+                statement.execute("CREATE TABLE IF NOT EXISTS generators (" +
+                        "id TEXT PRIMARY KEY, world TEXT NOT NULL, x INTEGER NOT NULL, y INTEGER NOT NULL, " +
+                        "z INTEGER NOT NULL, chunk_x INTEGER NOT NULL, chunk_z INTEGER NOT NULL, " +
+                        "owner TEXT NOT NULL, spawn_rate INTEGER NOT NULL, direction TEXT NOT NULL, " +
+                        "enabled INTEGER NOT NULL, production_time INTEGER NOT NULL, " +
+                        "pending_output REAL NOT NULL, items BLOB NOT NULL, " +
+                        "output_mode TEXT NOT NULL DEFAULT 'DROP')");
+                // Databases created before output modes existed
+                if (!hasColumn(statement, "output_mode")) {
+                    statement.execute("ALTER TABLE generators ADD COLUMN output_mode TEXT NOT NULL DEFAULT 'DROP'");
+                }
+            }
+            connection.setAutoCommit(false);
+            connection.commit();
+
+            Map<UUID, GeneratorRecord> records = query(SELECT, statement -> { });
+            if (records.isEmpty()) {
+                records = migrateFromFiles();
+            }
+            for (GeneratorRecord record : records.values()) {
+                written.put(record.getId(), Production.of(record));
+            }
+            return records;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private static boolean hasColumn(Statement statement, String column) throws SQLException {
+        try (ResultSet columns = statement.executeQuery("PRAGMA table_info(generators)")) {
+            while (columns.next()) {
+                if (column.equals(columns.getString("name"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private Map<UUID, GeneratorRecord> migrateFromFiles() throws SQLException {
+        if (!legacyStore.hasData()) {
+            return new LinkedHashMap<>();
+        }
+
+        Map<UUID, GeneratorRecord> records = legacyStore.load();
+        legacyStore.close(new ArrayList<>(records.values()));
+
+        logger.info("Migrating " + records.size() + " generators into " + DATABASE_NAME);
+        migrating = true;
+        List<PendingWrite> writes = new ArrayList<>(records.size());
+        for (GeneratorRecord record : records.values()) {
+            writes.add(upsert(record));
+        }
+        execute(writes);
+        legacyStore.markMigrated();
+        return records;
+    }
+
+    @Override
+    public void insert(GeneratorRecord record) {
+        queue(upsert(record));
+    }
+
+    @Override
+    public void delete(UUID id) {
+        queue(new PendingWrite(DELETE, statement -> statement.setString(1, id.toString())));
+    }
+
+    @Override
+    public void updateSpawnRate(UUID id, int spawnRate) {
+        queue(new PendingWrite(UPDATE_SPAWN_RATE, statement -> {
+            statement.setInt(1, spawnRate);
+            statement.setString(2, id.toString());
+        }));
+    }
+
+    @Override
+    public void updateEnabled(UUID id, boolean enabled) {
+        queue(new PendingWrite(UPDATE_ENABLED, statement -> {
+            statement.setInt(1, enabled ? 1 : 0);
+            statement.setString(2, id.toString());
+        }));
+    }
+
+    @Override
+    public void updateDirection(UUID id, Generator.SpawnDirection direction) {
+        queue(new PendingWrite(UPDATE_DIRECTION, statement -> {
+            statement.setString(1, direction.name());
+            statement.setString(2, id.toString());
+        }));
+    }
+
+    @Override
+    public void updateOutputMode(UUID id, Generator.OutputMode outputMode) {
+        queue(new PendingWrite(UPDATE_OUTPUT_MODE, statement -> {
+            statement.setString(1, outputMode.name());
+            statement.setString(2, id.toString());
+        }));
+    }
+
+    @Override
+    public void updateLoot(UUID id, LootTable loot) {
+        byte[] data = ItemSerialization.lootToYaml(loot);
+        queue(new PendingWrite(UPDATE_ITEMS, statement -> {
+            statement.setBytes(1, data);
+            statement.setString(2, id.toString());
+        }));
+    }
+
+    private static PendingWrite upsert(GeneratorRecord record) {
+        byte[] items = ItemSerialization.lootToYaml(record.getLoot());
+        return new PendingWrite(UPSERT, statement -> {
+            statement.setString(1, record.getId().toString());
+            statement.setString(2, record.getWorldName());
+            statement.setInt(3, record.getX());
+            statement.setInt(4, record.getY());
+            statement.setInt(5, record.getZ());
+            statement.setInt(6, record.getX() >> 4);
+            statement.setInt(7, record.getZ() >> 4);
+            statement.setString(8, record.getOwner().toString());
+            statement.setInt(9, record.getSpawnRate());
+            statement.setString(10, record.getDirection().name());
+            statement.setInt(11, record.isEnabled() ? 1 : 0);
+            statement.setLong(12, record.getProductionTime());
+            statement.setDouble(13, record.getPendingOutput());
+            statement.setBytes(14, items);
+            statement.setString(15, record.getOutputMode().name());
+        });
+    }
+
+    // Mutations can arrive from several threads on region-threaded servers
+    private synchronized void queue(PendingWrite write) {
+        if (failed) {
+            logger.warning("Generator storage failed to load, not saving the change");
+            return;
+        }
+        pending.add(write);
+    }
+
+    private synchronized List<PendingWrite> takePending() {
+        if (pending.isEmpty()) {
+            return null;
+        }
+        List<PendingWrite> writes = pending;
+        pending = new ArrayList<>();
+        return writes;
+    }
+
+    @Override
+    public void flush() {
+        List<PendingWrite> writes = takePending();
+        if (writes == null) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                execute(writes);
+            } catch (SQLException e) {
+                logger.severe("Failed to write " + writes.size() + " generator changes: " + e.getMessage());
+            }
+        });
+    }
+
+    // Consecutive writes of the same statement share one batch, so order is kept.
+    private void execute(List<PendingWrite> writes) throws SQLException {
+        if (connection == null) {
+            throw new SQLException(DATABASE_NAME + " is not open");
+        }
+
+        try {
+            PreparedStatement statement = null;
+            String currentSql = null;
+            for (PendingWrite write : writes) {
+                if (!write.sql.equals(currentSql)) {
+                    if (statement != null) {
+                        statement.executeBatch();
+                        statement.close();
+                    }
+                    currentSql = write.sql;
+                    statement = connection.prepareStatement(currentSql);
+                }
+                write.binder.bind(statement);
+                statement.addBatch();
+            }
+            if (statement != null) {
+                statement.executeBatch();
+                statement.close();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean needsSnapshot() {
+        return false;
+    }
+
+    @Override
+    public void snapshot(List<GeneratorRecord> records) {
+        if (failed) {
+            return;
+        }
+        flush();
+        writing.set(true);
+        executor.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                List<PendingWrite> writes = new ArrayList<>();
+                Map<UUID, Production> changed = new HashMap<>();
+                for (GeneratorRecord record : records) {
+                    Production production = Production.of(record);
+                    if (production.equals(written.get(record.getId()))) {
+                        continue;
+                    }
+                    changed.put(record.getId(), production);
+                    writes.add(new PendingWrite(UPDATE_PRODUCTION, statement -> {
+                        statement.setLong(1, production.productionTime());
+                        statement.setDouble(2, production.pendingOutput());
+                        statement.setString(3, record.getId().toString());
+                    }));
+                }
+                if (!writes.isEmpty()) {
+                    execute(writes);
+                }
+                written.putAll(changed);
+                // Anything left over was deleted since the last snapshot
+                if (written.size() > records.size()) {
+                    Set<UUID> ids = new HashSet<>();
+                    for (GeneratorRecord record : records) {
+                        ids.add(record.getId());
+                    }
+                    written.keySet().retainAll(ids);
+                }
+                migrating = false;
+                lastSaveNanos = System.nanoTime() - start;
+                lastSaveRecords = writes.size();
+                lastSaveTime = System.currentTimeMillis();
+                saveListener.accept(lastSaveNanos);
+            } catch (SQLException e) {
+                logger.severe("Failed to save generators: " + e.getMessage());
+            } finally {
+                writing.set(false);
+            }
+        });
+    }
+
+    @Override
+    public boolean isWriting() {
+        return writing.get();
+    }
+
+    @Override
+    public boolean isMigrating() {
+        return migrating;
+    }
+
+    private Map<UUID, GeneratorRecord> query(String sql, Binder binder) throws SQLException {
+        Map<UUID, GeneratorRecord> records = new LinkedHashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            binder.bind(statement);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    String idString = rows.getString(1);
+                    try {
+                        UUID id = UUID.fromString(idString);
+                        records.put(id, new GeneratorRecord(id,
+                                rows.getString(2),
+                                rows.getInt(3),
+                                rows.getInt(4),
+                                rows.getInt(5),
+                                UUID.fromString(rows.getString(6)),
+                                new GeneratorConfig(
+                                        ItemSerialization.lootFromYaml(rows.getBytes(12), logger),
+                                        rows.getInt(7),
+                                        Generator.SpawnDirection.valueOf(rows.getString(8)),
+                                        Generator.OutputMode.valueOf(rows.getString(13)),
+                                        rows.getInt(9) != 0),
+                                rows.getLong(10),
+                                rows.getDouble(11)));
+                    } catch (IOException | IllegalArgumentException e) {
+                        logger.warning("Failed to load generator " + idString + ": " + e.getMessage());
+                    }
+                }
+            }
+        } finally {
+            connection.commit();
+        }
+        return records;
+    }
+
+    @Override
+    public void close(List<GeneratorRecord> records) {
+        if (failed) {
+            return;
+        }
+        snapshot(records);
+        executor.execute(this::closeConnection);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.severe("Timed out waiting for generator storage to finish writing");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void closeConnection() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warning("Failed to close " + DATABASE_NAME + ": " + e.getMessage());
+        }
+        connection = null;
+    }
+
+    @Override
+    public synchronized int getPendingChanges() {
+        return pending.size();
+    }
+
+    @Override
+    public long getLastSaveNanos() {
+        return lastSaveNanos;
+    }
+
+    @Override
+    public long getLastSaveTime() {
+        return lastSaveTime;
+    }
+
+    @Override
+    public int getLastSaveRecords() {
+        return lastSaveRecords;
+    }
+
+    @Override
+    public long getLastSaveBytes() {
+        return -1;
+    }
+
+    @Override
+    public void setSaveListener(LongConsumer listener) {
+        this.saveListener = listener;
+    }
+}
@@ -0,0 +1,102 @@
+package com.speedier.fracturegens.storage;
+
+import com.speedier.fracturegens.models.Generator;
+import com.speedier.fracturegens.models.GeneratorConfig;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+public class YamlSnapshotCodec implements SnapshotCodec {
+    private final Logger logger;
+
+    public YamlSnapshotCodec(Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public String getFileName() {
+        return "generators.yml";
+    }
+
+    @Override
+    public byte[] encode(List<GeneratorRecord> records) {
+        YamlConfiguration config = new YamlConfiguration();
+
+        for (GeneratorRecord record : records) {
+            String path = "generators." + record.getId().toString();
+            config.set(path + ".location.world", record.getWorldName());
+            config.set(path + ".location.x", record.getX());
+            config.set(path + ".location.y", record.getY());
+            config.set(path + ".location.z", record.getZ());
+            config.set(path + ".owner", record.getOwner().toString());
+            config.set(path + ".spawn-rate", record.getSpawnRate());
+            config.set(path + ".direction", record.getDirection().name());
+            config.set(path + ".output-mode", record.getOutputMode().name());
+            config.set(path + ".enabled", record.isEnabled());
+            config.set(path + ".last-production", record.getProductionTime());
+            config.set(path + ".pending-output", record.getPendingOutput());
+            config.set(path + ".items", ItemSerialization.serialize(record.getItems()));
+            config.set(path + ".weights", record.getLoot().getWeights());
+        }
+
+        return config.saveToString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Map<UUID, GeneratorRecord> decode(ByteBuffer content) throws Exception {
+        Map<UUID, GeneratorRecord> records = new LinkedHashMap<>();
+        YamlConfiguration config = new YamlConfiguration();
+        config.loadFromString(StandardCharsets.UTF_8.decode(content).toString());
+        ConfigurationSection generatorsSection = config.getConfigurationSection("generators");
+
+        if (generatorsSection == null) {
+            return records;
+        }
+
+        // The YAML tree is parsed in one pass; turning sections into records
+        // (mostly ItemStack deserialization) is spread across threads.
+        List<String> ids = new ArrayList<>(generatorsSection.getKeys(false));
+        GeneratorRecord[] decoded = new GeneratorRecord[ids.size()];
+        IntStream.range(0, ids.size()).parallel().forEach(i ->
+                decoded[i] = decodeRecord(ids.get(i), generatorsSection.getConfigurationSection(ids.get(i))));
+
+        for (GeneratorRecord record : decoded) {
+            if (record != null) {
+                records.put(record.getId(), record);
+            }
+        }
+        return records;
+    }
+
+    private GeneratorRecord decodeRecord(String idString, ConfigurationSection genSection) {
+        try {
+            return new GeneratorRecord(UUID.fromString(idString),
+                    genSection.getString("location.world"),
+                    genSection.getInt("location.x"),
+                    genSection.getInt("location.y"),
+                    genSection.getInt("location.z"),
+                    UUID.fromString(genSection.getString("owner")),
+                    new GeneratorConfig(
+                            ItemSerialization.deserializeLoot(genSection.getList("items"),
+                                    genSection.getList("weights"), logger),
+                            genSection.getInt("spawn-rate", 60),
+                            Generator.SpawnDirection.valueOf(genSection.getString("direction", "TOP")),
+                            Generator.OutputMode.valueOf(genSection.getString("output-mode", "DROP")),
+                            genSection.getBoolean("enabled", true)),
+                    genSection.getLong("last-production", System.currentTimeMillis()),
+                    genSection.getDouble("pending-output", 0));
+        } catch (Exception e) {
+            logger.warning("Failed to load generator " + idString + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.speedier.fracturegens.utils;
+
+public final class LocationKeys {
+
+    private LocationKeys() {
+    }
+
+    public static long blockKey(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    public static int blockX(long blockKey) {
+        return (int) (blockKey >> 38);
+    }
+
+    public static int blockY(long blockKey) {
+        return (int) (blockKey << 52 >> 52);
+    }
+
+    public static int blockZ(long blockKey) {
+        return (int) (blockKey << 26 >> 38);
+    }
+
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public static int chunkX(long chunkKey) {
+        return (int) (chunkKey >> 32);
+    }
+
+    public static int chunkZ(long chunkKey) {
+        return (int) chunkKey;
+    }
+}
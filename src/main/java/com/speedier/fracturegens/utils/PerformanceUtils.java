@@ -1,10 +1,20 @@
 package com.speedier.fracturegens.utils;
 
+import com.speedier.fracturegens.scheduler.TaskScheduler;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
 public class PerformanceUtils {
+    private static final int RECENT_TICKS = 100;
+    private static volatile MethodHandle averageTickTime;
+    private static volatile boolean averageTickTimeResolved;
+    private static volatile TickSampler tickSampler;
     
     public static boolean isChunkLoaded(Location location) {
         World world = location.getWorld();
@@ -18,13 +28,76 @@ public class PerformanceUtils {
         return world.isChunkLoaded(chunkX, chunkZ);
     }
     
+    public static void startTickSampler(TaskScheduler taskScheduler, long lagSpikeMillis) {
+        stopTickSampler();
+        TickSampler sampler = new TickSampler(lagSpikeMillis);
+        sampler.start(taskScheduler);
+        tickSampler = sampler;
+    }
+    
+    public static void stopTickSampler() {
+        TickSampler sampler = tickSampler;
+        if (sampler != null) {
+            sampler.stop();
+            tickSampler = null;
+        }
+    }
+    
+    // null until the sampler has been started
+    public static TickSampler.Stats getTickStats() {
+        TickSampler sampler = tickSampler;
+        return sampler == null ? null : sampler.getStats();
+    }
+    
+    public static long getLagSpikes() {
+        TickSampler sampler = tickSampler;
+        return sampler == null ? 0 : sampler.getLagSpikes();
+    }
+    
     public static double getCurrentTPS() {
+        TickSampler.Stats stats = getTickStats();
+        return stats == null ? 20.0 : stats.getTps();
+    }
+    
+    /**
+     * Average milliseconds of work per tick. Uses Paper's getAverageTickTime when
+     * the server has it; otherwise the main thread's CPU time per tick from the
+     * tick sampler. Where the JVM can't measure that either, the sampler's tick
+     * intervals are returned, which include idle time and so never read much
+     * below 50 ms. 0 means nothing has been measured yet.
+     */
+    public static double getAverageTickTime() {
+        if (!averageTickTimeResolved) {
+            averageTickTime = resolveAverageTickTime();
+            averageTickTimeResolved = true;
+        }
+        
+        MethodHandle handle = averageTickTime;
+        if (handle != null) {
+            try {
+                return (double) handle.invokeExact();
+            } catch (Throwable e) {
+                averageTickTime = null;
+            }
+        }
+        
+        TickSampler sampler = tickSampler;
+        if (sampler == null) {
+            return 0;
+        }
+        double busy = sampler.getRecentBusyMillis(RECENT_TICKS);
+        return busy >= 0 ? busy : sampler.getRecentMeanMillis(RECENT_TICKS);
+    }
+    
+    // Bound to the server once, so each call is a direct invocation
+    private static MethodHandle resolveAverageTickTime() {
+        Object server = Bukkit.getServer();
         try {
-            Object server = Bukkit.getServer().getClass().getMethod("getServer").invoke(Bukkit.getServer());
-            Object[] recentTps = (Object[]) server.getClass().getField("recentTps").get(server);
-            return (Double) recentTps[0];
-        } catch (Exception e) {
-            return 20.0;
+            Method method = server.getClass().getMethod("getAverageTickTime");
+            return MethodHandles.publicLookup().unreflect(method).bindTo(server)
+                    .asType(MethodType.methodType(double.class));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
         }
     }
     
@@ -0,0 +1,183 @@
+package com.speedier.fracturegens.utils;
+
+import com.speedier.fracturegens.scheduler.TaskScheduler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Measures the time between consecutive server ticks from a task that runs
+ * every tick. Durations go into a fixed ring buffer written only by the main
+ * thread (on region-threaded servers, the global region thread, so the global
+ * tick is what gets measured); readers on any thread copy from it without
+ * locking. Derived stats are computed at most once per recorded tick and then
+ * shared, so repeated queries are just a volatile read.
+ * <p>
+ * The interval includes the time the server sleeps between ticks, so a
+ * healthy server reads about 50 ms per tick; values above that are lag. Where
+ * the JVM measures thread CPU time, the sampling thread's CPU time over the
+ * same interval is kept too, as the time the tick actually spent working.
+ */
+public class TickSampler {
+    public static final int CAPACITY = 1200;
+    private static final double TICK_MILLIS = 50.0;
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final AtomicLongArray samples = new AtomicLongArray(CAPACITY);
+    private final AtomicLongArray busySamples = new AtomicLongArray(CAPACITY);
+    private final boolean measuresBusyTime;
+    private final long lagSpikeNanos;
+    private volatile long count;
+    private volatile long lagSpikes;
+    private volatile Stats cachedStats;
+    private long lastTickNanos;
+    private long lastCpuNanos;
+    private TaskScheduler.Task task;
+
+    public static final class Stats {
+        private final long count;
+        private final int samples;
+        private final double tps;
+        private final double meanMillis;
+        private final double p50Millis;
+        private final double p95Millis;
+        private final double p99Millis;
+        private final double maxMillis;
+
+        private Stats(long count, int samples, double tps, double meanMillis, double p50Millis,
+                      double p95Millis, double p99Millis, double maxMillis) {
+            this.count = count;
+            this.samples = samples;
+            this.tps = tps;
+            this.meanMillis = meanMillis;
+            this.p50Millis = p50Millis;
+            this.p95Millis = p95Millis;
+            this.p99Millis = p99Millis;
+            this.maxMillis = maxMillis;
+        }
+
+        public int getSamples() { return samples; }
+        public double getTps() { return tps; }
+        public double getMeanMillis() { return meanMillis; }
+        public double getP50Millis() { return p50Millis; }
+        public double getP95Millis() { return p95Millis; }
+        public double getP99Millis() { return p99Millis; }
+        public double getMaxMillis() { return maxMillis; }
+    }
+
+    public TickSampler(long lagSpikeMillis) {
+        this.lagSpikeNanos = Math.max(1, lagSpikeMillis) * 1_000_000L;
+        this.measuresBusyTime = THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+    }
+
+    public void start(TaskScheduler taskScheduler) {
+        stop();
+        lastTickNanos = 0;
+        task = taskScheduler.runTimer(this::tick, 1L, 1L);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        long cpu = measuresBusyTime ? THREADS.getCurrentThreadCpuTime() : 0;
+        if (lastTickNanos != 0) {
+            record(now - lastTickNanos, cpu - lastCpuNanos);
+        }
+        lastTickNanos = now;
+        lastCpuNanos = cpu;
+    }
+
+    void record(long nanos, long busyNanos) {
+        long next = count;
+        samples.lazySet((int) (next % CAPACITY), nanos);
+        busySamples.lazySet((int) (next % CAPACITY), busyNanos);
+        if (nanos >= lagSpikeNanos) {
+            lagSpikes++;
+        }
+        // Volatile write publishes the sample to readers
+        count = next + 1;
+    }
+
+    public Stats getStats() {
+        long seen = count;
+        Stats stats = cachedStats;
+        if (stats != null && stats.count == seen) {
+            return stats;
+        }
+
+        int size = (int) Math.min(seen, CAPACITY);
+        if (size == 0) {
+            stats = new Stats(seen, 0, 20.0, TICK_MILLIS, TICK_MILLIS, TICK_MILLIS, TICK_MILLIS, TICK_MILLIS);
+        } else {
+            long[] window = copyRecent(seen, size);
+            Arrays.sort(window);
+            long total = 0;
+            for (long sample : window) {
+                total += sample;
+            }
+            double meanMillis = total / (double) size / 1_000_000.0;
+            stats = new Stats(seen, size, Math.min(20.0, 1000.0 / meanMillis), meanMillis,
+                    percentile(window, 0.50), percentile(window, 0.95), percentile(window, 0.99),
+                    window[size - 1] / 1_000_000.0);
+        }
+        cachedStats = stats;
+        return stats;
+    }
+
+    // Mean over just the last few ticks, for callers that need to react quickly
+    public double getRecentMeanMillis(int ticks) {
+        long seen = count;
+        int size = (int) Math.min(seen, Math.min(ticks, CAPACITY));
+        if (size == 0) {
+            return TICK_MILLIS;
+        }
+        long total = 0;
+        for (long i = seen - size; i < seen; i++) {
+            total += samples.get((int) (i % CAPACITY));
+        }
+        return total / (double) size / 1_000_000.0;
+    }
+
+    // Mean CPU time per tick over the last few ticks; -1 where the JVM can't
+    // measure it, 0 before the first tick
+    public double getRecentBusyMillis(int ticks) {
+        if (!measuresBusyTime) {
+            return -1;
+        }
+        long seen = count;
+        int size = (int) Math.min(seen, Math.min(ticks, CAPACITY));
+        if (size == 0) {
+            return 0;
+        }
+        long total = 0;
+        for (long i = seen - size; i < seen; i++) {
+            total += busySamples.get((int) (i % CAPACITY));
+        }
+        return total / (double) size / 1_000_000.0;
+    }
+
+    private long[] copyRecent(long seen, int size) {
+        long[] window = new long[size];
+        for (int i = 0; i < size; i++) {
+            window[i] = samples.get((int) ((seen - size + i) % CAPACITY));
+        }
+        return window;
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1_000_000.0;
+    }
+
+    public long getLagSpikes() { return lagSpikes; }
+    public long getLagSpikeMillis() { return lagSpikeNanos / 1_000_000L; }
+    public long getTickCount() { return count; }
+}
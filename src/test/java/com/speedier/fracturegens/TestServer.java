@@ -0,0 +1,118 @@
+package com.speedier.fracturegens;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.UnsafeValues;
+import org.bukkit.World;
+import org.bukkit.inventory.ItemFactory;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Just enough of a server for the plugin's model and storage code: worlds
+ * with a name, and the item factory and unsafe values that ItemStack
+ * serialization asks for. Everything else answers false, zero or null.
+ */
+public final class TestServer {
+    private static final Map<String, World> WORLDS = new HashMap<>();
+    private static boolean installed;
+
+    private TestServer() {
+    }
+
+    public static synchronized void install() {
+        if (installed) {
+            return;
+        }
+        installed = true;
+
+        ItemFactory itemFactory = stub(ItemFactory.class, Map.of(
+                "equals", args -> args.length == 2 ? Objects.equals(args[0], args[1]) : false));
+        UnsafeValues unsafe = stub(UnsafeValues.class, Map.of(
+                "getDataVersion", args -> 4082,
+                "getMaterial", args -> Material.getMaterial((String) args[0])));
+        Logger logger = Logger.getLogger("TestServer");
+        Bukkit.setServer(stub(Server.class, Map.of(
+                "getLogger", args -> logger,
+                "getName", args -> "TestServer",
+                "getVersion", args -> "test",
+                "getBukkitVersion", args -> "1.21.3-R0.1-SNAPSHOT",
+                "getItemFactory", args -> itemFactory,
+                "getUnsafe", args -> unsafe,
+                "isPrimaryThread", args -> true)));
+    }
+
+    public static synchronized World world(String name) {
+        install();
+        return WORLDS.computeIfAbsent(name, worldName -> {
+            UUID worldId = UUID.nameUUIDFromBytes(worldName.getBytes(StandardCharsets.UTF_8));
+            return stub(World.class, Map.of(
+                    "getName", args -> worldName,
+                    "getUID", args -> worldId,
+                    "isChunkLoaded", args -> true));
+        });
+    }
+
+    public static Location location(String worldName, int x, int y, int z) {
+        return new Location(world(worldName), x, y, z);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            Object[] arguments = args == null ? new Object[0] : args;
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(arguments);
+            }
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == arguments[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return type.getSimpleName() + "Stub";
+                default:
+                    break;
+            }
+            return defaultValue(method.getReturnType());
+        });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0.0;
+        }
+        if (type == float.class) {
+            return 0.0f;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        return null;
+    }
+}
@@ -0,0 +1,102 @@
+package com.speedier.fracturegens.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistogramTest {
+
+    @Test
+    void smallValuesAreExact() {
+        for (long value = 0; value < 128; value++) {
+            assertEquals(value, Histogram.valueAt(Histogram.indexOf(value)));
+        }
+    }
+
+    @Test
+    void bucketsAreContiguousAndOrdered() {
+        int previous = Histogram.indexOf(0);
+        for (long value = 1; value < 1 << 20; value++) {
+            int index = Histogram.indexOf(value);
+            assertTrue(index == previous || index == previous + 1, "gap after " + value);
+            previous = index;
+        }
+    }
+
+    @Test
+    void largeValuesStayWithinTheRelativeError() {
+        Random random = new Random(7);
+        List<Long> values = new ArrayList<>(List.of(128L, 255L, 256L, 1_000_000L, Long.MAX_VALUE));
+        for (int i = 0; i < 100_000; i++) {
+            values.add(random.nextLong() >>> (1 + random.nextInt(63)));
+        }
+
+        for (long value : values) {
+            long bucketValue = Histogram.valueAt(Histogram.indexOf(value));
+            double error = Math.abs((double) bucketValue - value) / Math.max(1, value);
+            assertTrue(error <= 1.0 / 64, value + " was kept as " + bucketValue);
+        }
+    }
+
+    @Test
+    void quantilesOfAUniformSpread() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(50_005_000, histogram.getSum());
+        assertEquals(5_000.5, histogram.getMean(), 1e-9);
+        assertEquals(10_000, histogram.getMax());
+        assertEquals(5_000, histogram.getQuantile(0.50), 5_000 / 64.0);
+        assertEquals(9_900, histogram.getQuantile(0.99), 9_900 / 64.0);
+        assertEquals(10_000, histogram.getQuantile(1.0));
+    }
+
+    @Test
+    void quantilesNeverExceedTheMax() {
+        Histogram histogram = new Histogram();
+        histogram.record(1_000_001);
+
+        assertEquals(1_000_001, histogram.getQuantile(0.5));
+    }
+
+    @Test
+    void emptyAndNegativeValues() {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.getQuantile(0.99));
+        assertEquals(0, histogram.getMean(), 0);
+
+        histogram.record(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getSum());
+        assertEquals(0, histogram.getQuantile(0.5));
+    }
+
+    @Test
+    void concurrentRecordsAreAllCounted() throws InterruptedException {
+        Histogram histogram = new Histogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(400_000, histogram.getCount());
+        assertEquals(4L * 99_999 * 100_000 / 2, histogram.getSum());
+        assertEquals(99_999, histogram.getMax());
+    }
+}
@@ -0,0 +1,191 @@
+package com.speedier.fracturegens.scheduler;
+
+import com.speedier.fracturegens.TestServer;
+import com.speedier.fracturegens.models.Generator;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpawnSchedulerTest {
+    private static final UUID OWNER_A = new UUID(0, 1);
+    private static final UUID OWNER_B = new UUID(0, 2);
+    private static final UUID OWNER_C = new UUID(0, 3);
+
+    private final SpawnScheduler scheduler = new SpawnScheduler();
+    private final Map<Generator, Integer> costs = new HashMap<>();
+    private int nextX;
+
+    private Generator generator(UUID owner, int cost) {
+        Generator generator = new Generator(TestServer.location("world", nextX++, 64, 0), owner);
+        costs.put(generator, cost);
+        return generator;
+    }
+
+    // Distinct due times, so generators become ready in the order given
+    private void scheduleInOrder(Generator... generators) {
+        for (int i = 0; i < generators.length; i++) {
+            scheduler.schedule(generators[i], 100 + i);
+        }
+    }
+
+    private List<Generator> poll(long now, SpawnBudget budget) {
+        return scheduler.pollDue(now, budget, costs::get);
+    }
+
+    private static SpawnBudget unlimited() {
+        return new SpawnBudget(Integer.MAX_VALUE, 0, 0);
+    }
+
+    @Test
+    void onlyGeneratorsPastTheirDueTimeArePolled() {
+        Generator early = generator(OWNER_A, 1);
+        Generator late = generator(OWNER_A, 1);
+        scheduler.schedule(late, 200);
+        scheduler.schedule(early, 100);
+
+        assertEquals(100, scheduler.getNextDueAt());
+        assertTrue(poll(99, unlimited()).isEmpty());
+        assertEquals(List.of(early), poll(150, unlimited()));
+        assertEquals(List.of(late), poll(200, unlimited()));
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    void rescheduleAndCancelUpdateTheQueueInPlace() {
+        Generator first = generator(OWNER_A, 1);
+        Generator second = generator(OWNER_A, 1);
+        Generator third = generator(OWNER_A, 1);
+        scheduler.schedule(first, 100);
+        scheduler.schedule(second, 200);
+        scheduler.schedule(third, 300);
+
+        scheduler.schedule(third, 50);
+        assertEquals(50, scheduler.getNextDueAt());
+        scheduler.schedule(third, 500);
+        assertEquals(100, scheduler.getNextDueAt());
+        assertTrue(scheduler.cancel(first.getId()));
+        assertFalse(scheduler.isScheduled(first.getId()));
+        assertEquals(200, scheduler.getNextDueAt());
+
+        assertEquals(List.of(second), poll(400, unlimited()));
+        assertEquals(List.of(third), poll(500, unlimited()));
+    }
+
+    @Test
+    void cancelledReadyGeneratorIsSkipped() {
+        Generator cancelled = generator(OWNER_A, 1);
+        Generator kept = generator(OWNER_A, 1);
+        scheduleInOrder(cancelled, kept);
+
+        // Both move to the ready queue, but the budget only covers one
+        assertEquals(List.of(cancelled), poll(200, new SpawnBudget(1, 0, 0)));
+        scheduler.schedule(cancelled, 100);
+        assertEquals(1, scheduler.getReadyCount());
+        assertTrue(scheduler.cancel(kept.getId()));
+
+        assertEquals(List.of(cancelled), poll(200, unlimited()));
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    void ownersAreServedRoundRobin() {
+        Generator a1 = generator(OWNER_A, 1);
+        Generator a2 = generator(OWNER_A, 1);
+        Generator a3 = generator(OWNER_A, 1);
+        Generator b1 = generator(OWNER_B, 1);
+        scheduleInOrder(a1, a2, a3, b1);
+
+        assertEquals(List.of(a1, b1, a2, a3), poll(200, unlimited()));
+    }
+
+    @Test
+    void rotationCarriesOverBetweenCycles() {
+        Generator a1 = generator(OWNER_A, 1);
+        Generator a2 = generator(OWNER_A, 1);
+        Generator b1 = generator(OWNER_B, 1);
+        Generator b2 = generator(OWNER_B, 1);
+        scheduleInOrder(a1, a2, b1, b2);
+
+        assertEquals(List.of(a1), poll(200, new SpawnBudget(1, 0, 0)));
+        assertEquals(List.of(b1, a2), poll(200, new SpawnBudget(2, 0, 0)));
+        assertEquals(List.of(b2), poll(200, unlimited()));
+    }
+
+    @Test
+    void budgetIsNeverExceeded() {
+        for (int i = 0; i < 5; i++) {
+            scheduler.schedule(generator(i % 2 == 0 ? OWNER_A : OWNER_B, 4), 100);
+        }
+
+        SpawnBudget budget = new SpawnBudget(10, 0, 0);
+        assertEquals(2, poll(100, budget).size());
+        assertEquals(8, budget.getUsed());
+        assertEquals(3, budget.getWaiting());
+    }
+
+    @Test
+    void worldBudgetIsNeverExceeded() {
+        Generator first = generator(OWNER_A, 3);
+        Generator second = generator(OWNER_B, 3);
+        scheduleInOrder(first, second);
+
+        SpawnBudget budget = new SpawnBudget(100, 5, 0);
+        assertEquals(List.of(first), poll(200, budget));
+        assertEquals(3, budget.getWorldUsage().get("world"));
+    }
+
+    @Test
+    void expensiveGeneratorIsNotPassedOverForCheaperOnes() {
+        Generator cheap = generator(OWNER_A, 3);
+        Generator expensive = generator(OWNER_B, 9);
+        Generator later = generator(OWNER_C, 1);
+        scheduleInOrder(cheap, expensive, later);
+
+        // The expensive one doesn't fit after the cheap one; the cycle ends there
+        // instead of letting the one behind it through
+        assertEquals(List.of(cheap), poll(200, new SpawnBudget(10, 0, 0)));
+        assertEquals(List.of(expensive, later), poll(200, new SpawnBudget(10, 0, 0)));
+    }
+
+    @Test
+    void ownerLimitKeepsOneOwnerFromCrowdingOutAnother() {
+        Generator a1 = generator(OWNER_A, 2);
+        Generator a2 = generator(OWNER_A, 2);
+        Generator a3 = generator(OWNER_A, 2);
+        Generator a4 = generator(OWNER_A, 2);
+        Generator b1 = generator(OWNER_B, 2);
+        Generator b2 = generator(OWNER_B, 2);
+        scheduleInOrder(a1, a2, a3, a4, b1, b2);
+
+        SpawnBudget budget = new SpawnBudget(8, 0, 4);
+        assertEquals(List.of(a1, b1, a2, b2), poll(200, budget));
+        assertEquals(4, budget.getOwnerUsage().get(OWNER_A));
+        assertEquals(4, budget.getOwnerUsage().get(OWNER_B));
+    }
+
+    @Test
+    void ownerLimitIsLiftedWhenNobodyElseIsWaiting() {
+        for (int i = 0; i < 4; i++) {
+            scheduler.schedule(generator(OWNER_A, 2), 100);
+        }
+
+        SpawnBudget budget = new SpawnBudget(100, 0, 3);
+        assertEquals(4, poll(100, budget).size());
+        assertEquals(8, budget.getOwnerUsage().get(OWNER_A));
+        assertEquals(0, budget.getWaiting());
+    }
+
+    @Test
+    void maxPerGeneratorFitsEveryLimit() {
+        assertEquals(25, new SpawnBudget(100, 0, 25).getMaxPerGenerator());
+        assertEquals(10, new SpawnBudget(100, 10, 25).getMaxPerGenerator());
+        assertEquals(5, new SpawnBudget(5, 0, 0).getMaxPerGenerator());
+    }
+}
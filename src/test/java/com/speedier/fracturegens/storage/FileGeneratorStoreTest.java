@@ -0,0 +1,205 @@
+package com.speedier.fracturegens.storage;
+
+import com.speedier.fracturegens.TestServer;
+import com.speedier.fracturegens.models.Generator;
+import com.speedier.fracturegens.models.LootTable;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.speedier.fracturegens.storage.StorageTestData.LOGGER;
+import static com.speedier.fracturegens.storage.StorageTestData.assertSameRecord;
+import static com.speedier.fracturegens.storage.StorageTestData.assertSameRecords;
+import static com.speedier.fracturegens.storage.StorageTestData.record;
+import static com.speedier.fracturegens.storage.StorageTestData.records;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileGeneratorStoreTest {
+    @TempDir
+    Path dataFolder;
+
+    @BeforeEach
+    void setUp() {
+        TestServer.install();
+    }
+
+    private FileGeneratorStore store(boolean binary) {
+        return new FileGeneratorStore(dataFolder.toFile(), LOGGER, 1000, binary);
+    }
+
+    private File journal() {
+        return dataFolder.resolve("generators.journal").toFile();
+    }
+
+    // The journal is written on the storage thread; wait for a flush to land
+    private void awaitJournal(long length) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (journal().length() < length && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(journal().length() >= length, "journal was not flushed");
+    }
+
+    @Test
+    void yamlSnapshotRoundTrip() {
+        snapshotRoundTrip(false);
+    }
+
+    @Test
+    void binarySnapshotRoundTrip() {
+        snapshotRoundTrip(true);
+    }
+
+    private void snapshotRoundTrip(boolean binary) {
+        List<GeneratorRecord> records = records(50);
+        FileGeneratorStore store = store(binary);
+        assertTrue(store.load().isEmpty());
+        store.close(records);
+
+        FileGeneratorStore reopened = store(binary);
+        assertSameRecords(records, reopened.load());
+        assertEquals(0, reopened.getPendingChanges());
+    }
+
+    @Test
+    void journalIsReplayedOverTheSnapshot() throws Exception {
+        List<GeneratorRecord> snapshot = records(3);
+        FileGeneratorStore store = store(false);
+        store.load();
+        store.snapshot(snapshot);
+
+        GeneratorRecord created = record(10);
+        LootTable loot = LootTable.uniform(List.of(new ItemStack(Material.EMERALD, 3)));
+        store.insert(created);
+        store.updateSpawnRate(snapshot.get(0).getId(), 250);
+        store.updateEnabled(snapshot.get(0).getId(), false);
+        store.updateDirection(snapshot.get(0).getId(), Generator.SpawnDirection.RANDOM);
+        store.updateOutputMode(snapshot.get(0).getId(), Generator.OutputMode.CONTAINER);
+        store.updateLoot(created.getId(), loot);
+        store.delete(snapshot.get(1).getId());
+        store.flush();
+        awaitJournal(1);
+        long journalLength = journal().length();
+        // No close: the server stopped without a final snapshot
+
+        Map<UUID, GeneratorRecord> loaded = store(false).load();
+        assertEquals(3, loaded.size());
+        assertFalse(loaded.containsKey(snapshot.get(1).getId()));
+        GeneratorRecord changed = loaded.get(snapshot.get(0).getId());
+        assertEquals(250, changed.getSpawnRate());
+        assertFalse(changed.isEnabled());
+        assertEquals(Generator.SpawnDirection.RANDOM, changed.getDirection());
+        assertEquals(Generator.OutputMode.CONTAINER, changed.getOutputMode());
+        assertSameRecord(snapshot.get(2), loaded.get(snapshot.get(2).getId()));
+        assertEquals(loot.getItems(), loaded.get(created.getId()).getItems());
+        assertEquals(journalLength, journal().length());
+    }
+
+    @Test
+    void tornJournalTailIsDiscarded() throws Exception {
+        FileGeneratorStore store = store(true);
+        store.load();
+        List<GeneratorRecord> created = records(4);
+        for (GeneratorRecord record : created) {
+            store.insert(record);
+        }
+        store.flush();
+        awaitJournal(1);
+        try (FileOutputStream out = new FileOutputStream(journal(), true)) {
+            out.write(new byte[] {0, 0, 0, 40, 1, 2, 3});
+        }
+
+        FileGeneratorStore reopened = store(true);
+        assertSameRecords(created, reopened.load());
+        assertEquals(4, reopened.getPendingChanges());
+        reopened.close(created);
+        assertEquals(0, journal().length());
+    }
+
+    @Test
+    void closeWritesASnapshotAndEmptiesTheJournal() {
+        FileGeneratorStore store = store(false);
+        store.load();
+        List<GeneratorRecord> records = records(5);
+        for (GeneratorRecord record : records) {
+            store.insert(record);
+        }
+        store.close(records);
+
+        assertEquals(0, journal().length());
+        assertSameRecords(records, store(false).load());
+    }
+
+    private static void corrupt(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            long middle = raf.length() / 2;
+            raf.seek(middle);
+            int value = raf.read();
+            raf.seek(middle);
+            raf.write(value ^ 0x5A);
+        }
+    }
+
+    @Test
+    void corruptSnapshotFallsBackToTheNewestBackup() throws IOException {
+        List<GeneratorRecord> older = records(3);
+        List<GeneratorRecord> newer = records(6);
+        FileGeneratorStore store = store(false);
+        store.setMaxBackups(3);
+        store.load();
+        store.snapshot(records(1));
+        store.snapshot(older);
+        store.close(newer);
+
+        File snapshot = dataFolder.resolve("generators.yml").toFile();
+        corrupt(snapshot);
+        byte[] corrupted = Files.readAllBytes(snapshot.toPath());
+
+        FileGeneratorStore reopened = store(false);
+        reopened.setMaxBackups(3);
+        assertSameRecords(older, reopened.load());
+        // The unreadable file is kept aside rather than rotated into the backups
+        assertFalse(snapshot.exists());
+        assertArrayEquals(corrupted, Files.readAllBytes(dataFolder.resolve("generators.yml.corrupt")));
+
+        reopened.close(older);
+        assertSameRecords(older, store(false).load());
+    }
+
+    @Test
+    void unreadableSnapshotFailsTheLoadAndIsLeftAlone() throws IOException {
+        FileGeneratorStore store = store(true);
+        store.load();
+        store.close(records(4));
+        File snapshot = dataFolder.resolve("generators.dat").toFile();
+        corrupt(snapshot);
+        byte[] corrupted = Files.readAllBytes(snapshot.toPath());
+
+        FileGeneratorStore reopened = store(true);
+        assertThrows(IllegalStateException.class, reopened::load);
+        reopened.insert(record(9));
+        reopened.flush();
+        reopened.snapshot(records(2));
+        reopened.close(records(2));
+
+        assertArrayEquals(corrupted, Files.readAllBytes(snapshot.toPath()));
+        assertEquals(0, journal().length());
+        assertThrows(IllegalStateException.class, store(true)::load);
+    }
+}
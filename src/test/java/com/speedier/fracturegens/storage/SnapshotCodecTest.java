@@ -0,0 +1,69 @@
+package com.speedier.fracturegens.storage;
+
+import com.speedier.fracturegens.TestServer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.speedier.fracturegens.storage.StorageTestData.LOGGER;
+import static com.speedier.fracturegens.storage.StorageTestData.assertSameRecords;
+import static com.speedier.fracturegens.storage.StorageTestData.records;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotCodecTest {
+
+    @BeforeEach
+    void setUp() {
+        TestServer.install();
+    }
+
+    @Test
+    void yamlRoundTrip() throws Exception {
+        SnapshotCodec codec = new YamlSnapshotCodec(LOGGER);
+        List<GeneratorRecord> records = records(25);
+
+        assertSameRecords(records, codec.decode(ByteBuffer.wrap(codec.encode(records))));
+    }
+
+    @Test
+    void binaryRoundTrip() throws Exception {
+        SnapshotCodec codec = new BinarySnapshotCodec(LOGGER);
+        List<GeneratorRecord> records = records(10_000);
+
+        assertSameRecords(records, codec.decode(ByteBuffer.wrap(codec.encode(records))));
+    }
+
+    @Test
+    void emptySnapshotsRoundTrip() throws Exception {
+        for (SnapshotCodec codec : List.of(new YamlSnapshotCodec(LOGGER), new BinarySnapshotCodec(LOGGER))) {
+            assertTrue(codec.decode(ByteBuffer.wrap(codec.encode(List.of()))).isEmpty());
+        }
+    }
+
+    @Test
+    void binaryStoresSharedItemsOnce() throws Exception {
+        SnapshotCodec codec = new BinarySnapshotCodec(LOGGER);
+        int small = codec.encode(records(2)).length;
+        int large = codec.encode(records(1_002)).length;
+
+        // Records only add their fixed-width part and pool entries, no item data
+        assertTrue(large - small <= 1_000 * (75 + 2 * 8), "grew by " + (large - small));
+    }
+
+    @Test
+    void binaryRejectsForeignAndTruncatedData() throws Exception {
+        SnapshotCodec codec = new BinarySnapshotCodec(LOGGER);
+        byte[] encoded = codec.encode(records(3));
+
+        assertThrows(IOException.class, () -> codec.decode(ByteBuffer.wrap(
+                "generators: {}\n".repeat(4).getBytes(StandardCharsets.UTF_8))));
+        assertThrows(IOException.class, () -> codec.decode(ByteBuffer.wrap(
+                Arrays.copyOf(encoded, encoded.length - 1))));
+    }
+}
@@ -0,0 +1,181 @@
+package com.speedier.fracturegens.storage;
+
+import com.speedier.fracturegens.TestServer;
+import com.speedier.fracturegens.models.Generator;
+import com.speedier.fracturegens.models.LootTable;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.speedier.fracturegens.storage.StorageTestData.LOGGER;
+import static com.speedier.fracturegens.storage.StorageTestData.assertSameRecord;
+import static com.speedier.fracturegens.storage.StorageTestData.assertSameRecords;
+import static com.speedier.fracturegens.storage.StorageTestData.record;
+import static com.speedier.fracturegens.storage.StorageTestData.records;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqliteGeneratorStoreTest {
+    @TempDir
+    Path dataFolder;
+
+    private String url;
+    // Keeps the shared in-memory database alive between store instances
+    private Connection keepAlive;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        TestServer.install();
+        url = "jdbc:sqlite:file:" + UUID.randomUUID() + "?mode=memory&cache=shared";
+        keepAlive = DriverManager.getConnection(url);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        keepAlive.close();
+    }
+
+    private SqliteGeneratorStore store() {
+        return new SqliteGeneratorStore(url, dataFolder.toFile(), LOGGER,
+                new FileGeneratorStore(dataFolder.toFile(), LOGGER, 1000, false));
+    }
+
+    @Test
+    void recordsSurviveAReopen() {
+        List<GeneratorRecord> records = records(20);
+        SqliteGeneratorStore store = store();
+        assertTrue(store.load().isEmpty());
+        for (GeneratorRecord record : records) {
+            store.insert(record);
+        }
+        store.close(records);
+
+        assertSameRecords(records, store().load());
+    }
+
+    @Test
+    void updatesAndDeletesAreApplied() {
+        List<GeneratorRecord> records = records(3);
+        SqliteGeneratorStore store = store();
+        store.load();
+        for (GeneratorRecord record : records) {
+            store.insert(record);
+        }
+        store.flush();
+
+        UUID changed = records.get(0).getId();
+        LootTable loot = LootTable.uniform(List.of(new ItemStack(Material.EMERALD, 3)));
+        store.updateSpawnRate(changed, 250);
+        store.updateEnabled(changed, false);
+        store.updateDirection(changed, Generator.SpawnDirection.SIDES);
+        store.updateOutputMode(changed, Generator.OutputMode.CONTAINER);
+        store.updateLoot(changed, loot);
+        store.delete(records.get(1).getId());
+        assertEquals(6, store.getPendingChanges());
+        store.close(List.of());
+
+        Map<UUID, GeneratorRecord> loaded = store().load();
+        assertEquals(2, loaded.size());
+        assertFalse(loaded.containsKey(records.get(1).getId()));
+        GeneratorRecord record = loaded.get(changed);
+        assertEquals(250, record.getSpawnRate());
+        assertFalse(record.isEnabled());
+        assertEquals(Generator.SpawnDirection.SIDES, record.getDirection());
+        assertEquals(Generator.OutputMode.CONTAINER, record.getOutputMode());
+        assertEquals(loot.getItems(), record.getItems());
+        assertSameRecord(records.get(2), loaded.get(records.get(2).getId()));
+    }
+
+    @Test
+    void snapshotStoresProductionProgress() {
+        GeneratorRecord original = record(1);
+        SqliteGeneratorStore store = store();
+        store.load();
+        store.insert(original);
+
+        GeneratorRecord progressed = new GeneratorRecord(original.getId(), original.getWorldName(),
+                original.getX(), original.getY(), original.getZ(), original.getOwner(), original.getConfig(),
+                original.getProductionTime() + 60_000, 4.5);
+        store.close(List.of(progressed));
+
+        GeneratorRecord loaded = store().load().get(original.getId());
+        assertEquals(progressed.getProductionTime(), loaded.getProductionTime());
+        assertEquals(4.5, loaded.getPendingOutput(), 1e-9);
+    }
+
+    @Test
+    void snapshotOnlyWritesChangedProduction() throws InterruptedException {
+        List<GeneratorRecord> records = new ArrayList<>(records(5));
+        SqliteGeneratorStore store = store();
+        store.load();
+        for (GeneratorRecord record : records) {
+            store.insert(record);
+        }
+        store.snapshot(records);
+        awaitSave(store);
+        assertEquals(5, store.getLastSaveRecords());
+
+        store.snapshot(records);
+        awaitSave(store);
+        assertEquals(0, store.getLastSaveRecords());
+
+        GeneratorRecord original = records.get(3);
+        GeneratorRecord progressed = new GeneratorRecord(original.getId(), original.getWorldName(),
+                original.getX(), original.getY(), original.getZ(), original.getOwner(), original.getConfig(),
+                original.getProductionTime() + 60_000, 2.0);
+        records.set(3, progressed);
+        store.snapshot(records);
+        awaitSave(store);
+        assertEquals(1, store.getLastSaveRecords());
+        store.close(records);
+
+        assertSameRecords(records, store().load());
+    }
+
+    private static void awaitSave(SqliteGeneratorStore store) throws InterruptedException {
+        while (store.isWriting()) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void filesAreMigratedIntoAnEmptyDatabase() {
+        List<GeneratorRecord> records = records(8);
+        FileGeneratorStore files = new FileGeneratorStore(dataFolder.toFile(), LOGGER, 1000, false);
+        files.load();
+        files.close(records);
+
+        SqliteGeneratorStore store = store();
+        assertSameRecords(records, store.load());
+        assertTrue(store.isMigrating());
+        assertTrue(dataFolder.resolve("generators.yml.migrated").toFile().exists());
+        store.close(records);
+
+        assertSameRecords(records, store().load());
+    }
+
+    @Test
+    void failedOpenFailsTheLoadAndRefusesChanges() {
+        SqliteGeneratorStore store = new SqliteGeneratorStore("jdbc:sqlite:" + dataFolder.resolve("missing/nested/x.db"),
+                dataFolder.toFile(), LOGGER, new FileGeneratorStore(dataFolder.toFile(), LOGGER, 1000, false));
+
+        assertThrows(IllegalStateException.class, store::load);
+        store.insert(record(1));
+        assertEquals(0, store.getPendingChanges());
+        store.close(List.of(record(1)));
+    }
+}
@@ -0,0 +1,67 @@
+package com.speedier.fracturegens.storage;
+
+import com.speedier.fracturegens.models.Generator;
+import com.speedier.fracturegens.models.GeneratorConfig;
+import com.speedier.fracturegens.models.LootTable;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+final class StorageTestData {
+    static final Logger LOGGER = Logger.getLogger("StorageTest");
+
+    private StorageTestData() {
+    }
+
+    static GeneratorRecord record(int index) {
+        LootTable loot = new LootTable(List.of(
+                new ItemStack(Material.COBBLESTONE, 1),
+                new ItemStack(index % 2 == 0 ? Material.DIAMOND : Material.IRON_INGOT, 2)), List.of(7, 3));
+        return new GeneratorRecord(new UUID(index, 42), index % 3 == 0 ? "world_nether" : "world",
+                index * 17, 64 + index % 5, -index * 31, new UUID(7, index % 4),
+                new GeneratorConfig(loot, 30 + index, Generator.SpawnDirection.values()[index % 3],
+                        index % 4 == 0 ? Generator.OutputMode.CONTAINER : Generator.OutputMode.DROP, index % 5 != 0),
+                1_700_000_000_000L + index, index * 0.25);
+    }
+
+    static List<GeneratorRecord> records(int count) {
+        GeneratorRecord[] records = new GeneratorRecord[count];
+        for (int i = 0; i < count; i++) {
+            records[i] = record(i);
+        }
+        return List.of(records);
+    }
+
+    static void assertSameRecords(List<GeneratorRecord> expected, Map<UUID, GeneratorRecord> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (GeneratorRecord record : expected) {
+            GeneratorRecord loaded = actual.get(record.getId());
+            assertNotNull(loaded, "missing " + record.getId());
+            assertSameRecord(record, loaded);
+        }
+    }
+
+    static void assertSameRecord(GeneratorRecord expected, GeneratorRecord actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getWorldName(), actual.getWorldName());
+        assertEquals(expected.getX(), actual.getX());
+        assertEquals(expected.getY(), actual.getY());
+        assertEquals(expected.getZ(), actual.getZ());
+        assertEquals(expected.getOwner(), actual.getOwner());
+        assertEquals(expected.getSpawnRate(), actual.getSpawnRate());
+        assertEquals(expected.getDirection(), actual.getDirection());
+        assertEquals(expected.getOutputMode(), actual.getOutputMode());
+        assertEquals(expected.isEnabled(), actual.isEnabled());
+        assertEquals(expected.getProductionTime(), actual.getProductionTime());
+        assertEquals(expected.getPendingOutput(), actual.getPendingOutput(), 1e-9);
+        assertEquals(expected.getItems(), actual.getItems());
+        assertEquals(expected.getLoot().getWeights(), actual.getLoot().getWeights());
+    }
+}
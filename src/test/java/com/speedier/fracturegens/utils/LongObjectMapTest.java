@@ -0,0 +1,126 @@
+package com.speedier.fracturegens.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongObjectMapTest {
+
+    @Test
+    void putReplacesAndReturnsThePreviousValue() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        assertNull(map.put(7L, "a"));
+        assertEquals("a", map.put(7L, "b"));
+        assertEquals("b", map.get(7L));
+        assertEquals(1, map.size());
+        assertThrows(IllegalArgumentException.class, () -> map.put(8L, null));
+    }
+
+    @Test
+    void zeroAndNegativeKeysAreOrdinaryKeys() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(0L, "zero");
+        map.put(-1L, "minus one");
+        map.put(Long.MIN_VALUE, "min");
+
+        assertEquals("zero", map.get(0L));
+        assertEquals("minus one", map.get(-1L));
+        assertEquals("min", map.get(Long.MIN_VALUE));
+        assertEquals("zero", map.remove(0L));
+        assertFalse(map.containsKey(0L));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        LongObjectMap<Long> map = new LongObjectMap<>(4);
+        for (long key = 0; key < 10_000; key++) {
+            map.put(key * 31, key);
+        }
+
+        assertEquals(10_000, map.size());
+        for (long key = 0; key < 10_000; key++) {
+            assertEquals(key, map.get(key * 31));
+        }
+        assertNull(map.get(1L));
+    }
+
+    @Test
+    void removeKeepsTheRestOfAProbeChainReachable() {
+        // Enough keys that removals land inside probe chains and have to shift entries back
+        LongObjectMap<Long> map = new LongObjectMap<>(4);
+        for (int x = -8; x < 8; x++) {
+            for (int z = -8; z < 8; z++) {
+                long key = LocationKeys.chunkKey(x, z);
+                map.put(key, key);
+            }
+        }
+
+        for (int x = -8; x < 8; x += 2) {
+            for (int z = -8; z < 8; z++) {
+                assertEquals(LocationKeys.chunkKey(x, z), map.remove(LocationKeys.chunkKey(x, z)));
+            }
+        }
+
+        assertEquals(128, map.size());
+        for (int x = -8; x < 8; x++) {
+            for (int z = -8; z < 8; z++) {
+                long key = LocationKeys.chunkKey(x, z);
+                if ((x & 1) == 0) {
+                    assertNull(map.get(key));
+                } else {
+                    assertEquals(key, map.get(key));
+                }
+            }
+        }
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        Random random = new Random(42);
+        LongObjectMap<Integer> map = new LongObjectMap<>();
+        Map<Long, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        Map<Long, Integer> iterated = new HashMap<>();
+        map.forEach((key, value) -> assertNull(iterated.put(key, value)));
+        assertEquals(expected, iterated);
+
+        int[] values = new int[1];
+        map.forEachValue(value -> values[0]++);
+        assertEquals(expected.size(), values[0]);
+    }
+
+    @Test
+    void emptiesCompletely() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        for (long key = 0; key < 100; key++) {
+            map.put(key, "v");
+        }
+        for (long key = 0; key < 100; key++) {
+            map.remove(key);
+        }
+
+        assertTrue(map.isEmpty());
+        map.forEachValue(value -> {
+            throw new AssertionError("unexpected value " + value);
+        });
+    }
+}